@@ -0,0 +1,213 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+//Solves a stream of jobs concurrently and prints one JSON line per job as soon as it finishes
+//A job is one line "graph,depot,populationSize,mutationRate,generations[,seed]", where graph is
+//a file for GraphLoader.load or "builtin" for the built-in Graph. Blank lines and lines starting
+//with # are skipped. Each graph is loaded once and shared, read-only, by all jobs that name it,
+//together with its shortest path table. A graph that fails to load fails every job that names it
+//Lines are printed in completion order, the "job" field is the line number of the job. A job
+//that fails prints a line with an "error" field instead of "routes"
+//  java BatchSolver [jobs file|-] [parallelism]
+public class BatchSolver {
+
+    private final int parallelism;
+    private final PrintStream out;
+    private final Map<String, FutureTask<SharedGraph>> graphs = new ConcurrentHashMap<>();
+
+    //A loaded graph and the shortest paths of all jobs on it
+    private static final class SharedGraph {
+        final WeightedGraph graph;
+        final ShortestPaths shortestPaths;
+
+        SharedGraph(WeightedGraph graph) {
+            this.graph = graph;
+            this.shortestPaths = GeneticAlgorithm.newShortestPaths(graph);
+        }
+    }
+
+    public BatchSolver(int parallelism, PrintStream out) {
+        if (parallelism < 1)
+            throw new IllegalArgumentException("Parallelism must be positive");
+        this.parallelism = parallelism;
+        this.out = out;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int parallelism = args.length > 1 ? Integer.parseInt(args[1])
+                : Runtime.getRuntime().availableProcessors();
+        BatchSolver solver = new BatchSolver(parallelism, System.out);
+        if (args.length == 0 || args[0].equals("-")) {
+            solver.solve(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)));
+        } else {
+            try (BufferedReader reader = Files.newBufferedReader(Paths.get(args[0]), StandardCharsets.UTF_8)) {
+                solver.solve(reader);
+            }
+        }
+    }
+
+    //Reads jobs until the end of the input and returns when all of them are done
+    //At most parallelism jobs run at once, reading waits for a free slot so the input is never
+    //read far ahead of the solver
+    public void solve(BufferedReader jobs) throws IOException, InterruptedException {
+        Semaphore slots = new Semaphore(parallelism);
+        ExecutorService executor = newExecutor();
+        try {
+            String line;
+            int lineNumber = 0;
+            while ((line = jobs.readLine()) != null) {
+                lineNumber++;
+                String job = line.strip();
+                if (job.isEmpty() || job.startsWith("#"))
+                    continue;
+                int id = lineNumber;
+                slots.acquire();
+                executor.execute(() -> {
+                    try {
+                        emit(run(id, job));
+                    } finally {
+                        slots.release();
+                    }
+                });
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    //A virtual thread per job where the JDK has them (21+), found by reflection so the code also
+    //builds on 17, otherwise a fixed pool. The semaphore bounds the parallelism in both cases
+    private ExecutorService newExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(parallelism);
+        }
+    }
+
+    private String run(int id, String job) {
+        StringBuilder json = new StringBuilder("{\"job\":").append(id);
+        try {
+            String[] fields = job.split(job.indexOf('\t') >= 0 ? "\t" : ",");
+            if (fields.length != 5 && fields.length != 6)
+                throw new IllegalArgumentException("expected graph,depot,populationSize,mutationRate,generations[,seed]");
+            String graphName = fields[0].strip();
+            String depot = fields[1].strip();
+            int populationSize = Integer.parseInt(fields[2].strip());
+            double mutationRate = Double.parseDouble(fields[3].strip());
+            int numberOfGenerations = Integer.parseInt(fields[4].strip());
+            long seed = fields.length == 6 ? Long.parseLong(fields[5].strip()) : id;
+            json.append(",\"graph\":").append(quote(graphName)).append(",\"depot\":").append(quote(depot));
+
+            long start = System.nanoTime();
+            SharedGraph shared = graph(graphName);
+            GeneticAlgorithm gen = new GeneticAlgorithm(shared.graph, populationSize, mutationRate, depot, seed, null,
+                    shared.shortestPaths);
+            gen.setExtractionInterval(0);
+            List<Route> bestRoutes = gen.findBestRoutes(numberOfGenerations);
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            // Built apart and appended whole, so a failure never leaves half a routes array
+            String routes = routes(bestRoutes);
+            json.append(",\"millis\":").append(millis).append(",\"routes\":").append(routes).append('}');
+        } catch (RuntimeException e) {
+            return failed(json, e);
+        } catch (Error e) {
+            // The job still gets its line, then the error goes on as usual
+            emit(failed(json, e));
+            throw e;
+        }
+        return json.toString();
+    }
+
+    private static String routes(List<Route> bestRoutes) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < bestRoutes.size(); i++) {
+            Route route = bestRoutes.get(i);
+            if (i > 0)
+                json.append(',');
+            json.append("{\"cities\":[");
+            List<String> cities = route.getPath();
+            for (int k = 0; k < cities.size(); k++) {
+                if (k > 0)
+                    json.append(',');
+                json.append(quote(cities.get(k)));
+            }
+            json.append("],\"distance\":").append(route.getTotalDistance())
+                    .append(",\"time\":").append(route.getTotalTime())
+                    .append(",\"fitness\":").append(route.getFitness()).append('}');
+        }
+        return json.append(']').toString();
+    }
+
+    //The fields written before the failure are kept, the message names the exception if it has none
+    private static String failed(StringBuilder json, Throwable e) {
+        String message = e.getMessage() != null ? e.getMessage() : e.getClass().getName();
+        return json.append(",\"error\":").append(quote(message)).append('}').toString();
+    }
+
+    //The map only stores the task, the first job to get it runs the load outside the map's lock and
+    //the other jobs on the same graph wait for it. The task keeps the outcome, a failure included
+    private SharedGraph graph(String name) {
+        FutureTask<SharedGraph> load = graphs.computeIfAbsent(name, key -> new FutureTask<>(() -> load(key)));
+        load.run();
+        try {
+            return load.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException)
+                throw new UncheckedIOException((IOException) cause);
+            if (cause instanceof Error)
+                throw (Error) cause;
+            throw (RuntimeException) cause;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading " + name, e);
+        }
+    }
+
+    private static SharedGraph load(String name) throws IOException {
+        if (name.equals("builtin"))
+            return new SharedGraph(new Graph());
+        return new SharedGraph(GraphLoader.load(Paths.get(name)));
+    }
+
+    //Whole lines only, so the output of concurrent jobs never interleaves
+    private void emit(String line) {
+        synchronized (out) {
+            out.println(line);
+            out.flush();
+        }
+    }
+
+    private static String quote(String text) {
+        StringBuilder quoted = new StringBuilder(text.length() + 2).append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < 0x20) {
+                quoted.append(String.format("\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+}
@@ -0,0 +1,169 @@
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+//Compressed sparse row graph for large road networks
+//The neighbours of city v are targets[offsets[v] .. offsets[v + 1] - 1], sorted by index, with
+//their distances at the same positions in weights. Every undirected edge is stored in both rows,
+//so memory is O(n + m) instead of the O(n^2) of the adjacency matrix
+//Edits go to an EdgeOverlay, the arrays themselves never change
+public class CsrGraph implements WeightedGraph {
+
+    private final String[] vertices;
+    private final Map<String, Integer> vertexIndex;
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] weights;
+    private final EdgeOverlay edits;
+
+    //The arrays are used as they are, rows must be sorted by target
+    public CsrGraph(String[] vertices, int[] offsets, int[] targets, int[] weights) {
+        if (offsets.length != vertices.length + 1 || targets.length != weights.length
+                || offsets[vertices.length] != targets.length) {
+            throw new IllegalArgumentException("Inconsistent CSR arrays");
+        }
+        this.vertices = vertices;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.edits = new EdgeOverlay(vertices.length);
+        this.vertexIndex = new HashMap<>(vertices.length * 2);
+        for (int i = 0; i < vertices.length; i++) {
+            vertexIndex.put(vertices[i], i);
+        }
+    }
+
+    //Builds the graph from an undirected edge list, edge i is from[i] - to[i] with distance weight[i]
+    //Self loops and distances <= 0 are skipped, for repeated edges the shortest distance is kept
+    public static CsrGraph fromEdges(String[] vertices, int[] from, int[] to, int[] weight, int edgeCount) {
+        int n = vertices.length;
+        int[] offsets = new int[n + 1];
+        for (int i = 0; i < edgeCount; i++) {
+            if (from[i] != to[i] && weight[i] > 0) {
+                offsets[from[i] + 1]++;
+                offsets[to[i] + 1]++;
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+
+        // Each entry is (target << 32 | weight), so sorting a row sorts by target and then by distance
+        long[] entries = new long[offsets[n]];
+        int[] fill = Arrays.copyOf(offsets, n);
+        for (int i = 0; i < edgeCount; i++) {
+            if (from[i] != to[i] && weight[i] > 0) {
+                entries[fill[from[i]]++] = ((long) to[i] << 32) | weight[i];
+                entries[fill[to[i]]++] = ((long) from[i] << 32) | weight[i];
+            }
+        }
+
+        int[] compactOffsets = new int[n + 1];
+        int[] targets = new int[entries.length];
+        int[] weights = new int[entries.length];
+        int size = 0;
+        for (int v = 0; v < n; v++) {
+            Arrays.sort(entries, offsets[v], offsets[v + 1]);
+            compactOffsets[v] = size;
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                int target = (int) (entries[e] >>> 32);
+                if (size > compactOffsets[v] && targets[size - 1] == target) {
+                    continue; // Repeated edge, the first one has the shortest distance
+                }
+                targets[size] = target;
+                weights[size] = (int) entries[e];
+                size++;
+            }
+        }
+        compactOffsets[n] = size;
+        return new CsrGraph(vertices, compactOffsets, Arrays.copyOf(targets, size), Arrays.copyOf(weights, size));
+    }
+
+    //Copies any graph, for example the predefined Graph, into CSR form
+    public static CsrGraph copyOf(WeightedGraph graph) {
+        int n = graph.getVertexCount();
+        int edgeCount = 0;
+        for (int v = 0; v < n; v++) {
+            edgeCount += graph.getDegree(v);
+        }
+        int[] from = new int[edgeCount];
+        int[] to = new int[edgeCount];
+        int[] weight = new int[edgeCount];
+        int size = 0;
+        for (int v = 0; v < n; v++) {
+            for (int k = 0; k < graph.getDegree(v); k++) {
+                int u = graph.getNeighbor(v, k);
+                if (v < u) {
+                    from[size] = v;
+                    to[size] = u;
+                    weight[size] = graph.getNeighborWeight(v, k);
+                    size++;
+                }
+            }
+        }
+        return fromEdges(graph.getVertices().clone(), from, to, weight, size);
+    }
+
+    @Override
+    public int getVertexCount() {
+        return vertices.length;
+    }
+
+    @Override
+    public String[] getVertices() {
+        return vertices;
+    }
+
+    @Override
+    public int getIndex(String vertex) {
+        Integer index = vertexIndex.get(vertex);
+        return index == null ? -1 : index;
+    }
+
+    @Override
+    public String getVertexName(int index) {
+        return vertices[index];
+    }
+
+    //Binary search in the row of the first city, O(log degree)
+    @Override
+    public int getEdgeWeight(int from, int to) {
+        if (edits.isEdited(from))
+            return edits.getEdgeWeight(from, to);
+        int position = Arrays.binarySearch(targets, offsets[from], offsets[from + 1], to);
+        return position >= 0 ? weights[position] : 0;
+    }
+
+    @Override
+    public int getDegree(int vertex) {
+        if (edits.isEdited(vertex))
+            return edits.getDegree(vertex);
+        return offsets[vertex + 1] - offsets[vertex];
+    }
+
+    @Override
+    public int getNeighbor(int vertex, int k) {
+        if (edits.isEdited(vertex))
+            return edits.getNeighbor(vertex, k);
+        return targets[offsets[vertex] + k];
+    }
+
+    @Override
+    public int getNeighborWeight(int vertex, int k) {
+        if (edits.isEdited(vertex))
+            return edits.getNeighborWeight(vertex, k);
+        return weights[offsets[vertex] + k];
+    }
+
+    @Override
+    public void setEdgeWeight(int from, int to, int distance) {
+        if (from == to)
+            throw new IllegalArgumentException("A road needs two different cities");
+        edits.setEdgeWeight(this, from, to, distance);
+    }
+
+    //Number of undirected edges
+    public int getEdgeCount() {
+        return targets.length / 2 + edits.getEdgeDelta();
+    }
+}
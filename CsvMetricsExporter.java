@@ -0,0 +1,57 @@
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+//Writes one CSV line per generation: fitness, diversity and retries, then the nanoseconds and
+//the allocated bytes of each phase. Lines are buffered, close() flushes them
+public class CsvMetricsExporter implements GenerationListener, Closeable {
+
+    private final BufferedWriter writer;
+
+    public CsvMetricsExporter(Path path) throws IOException {
+        this.writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+        StringBuilder header = new StringBuilder(
+                "generation,best_fitness,mean_fitness,worst_fitness,diversity,distinct_routes,route_retries");
+        for (GenerationMetrics.Phase phase : GenerationMetrics.Phase.values()) {
+            header.append(',').append(phase.name().toLowerCase()).append("_ns");
+        }
+        for (GenerationMetrics.Phase phase : GenerationMetrics.Phase.values()) {
+            header.append(',').append(phase.name().toLowerCase()).append("_bytes");
+        }
+        writer.write(header.toString());
+        writer.newLine();
+    }
+
+    @Override
+    public void onGeneration(GenerationMetrics metrics) {
+        StringBuilder line = new StringBuilder();
+        line.append(metrics.getGeneration()).append(',')
+                .append(metrics.getBestFitness()).append(',')
+                .append(metrics.getMeanFitness()).append(',')
+                .append(metrics.getWorstFitness()).append(',')
+                .append(metrics.getDiversity()).append(',')
+                .append(metrics.getDistinctRoutes()).append(',')
+                .append(metrics.getRouteRetries());
+        for (GenerationMetrics.Phase phase : GenerationMetrics.Phase.values()) {
+            line.append(',').append(metrics.getNanos(phase));
+        }
+        for (GenerationMetrics.Phase phase : GenerationMetrics.Phase.values()) {
+            line.append(',').append(metrics.getAllocatedBytes(phase));
+        }
+        try {
+            writer.write(line.toString());
+            writer.newLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
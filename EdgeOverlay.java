@@ -0,0 +1,114 @@
+import java.util.Arrays;
+
+//Edited rows on top of a CSR graph whose own arrays stay as they are, used by CsrGraph and
+//MappedCsrGraph for setEdgeWeight. The first edit of a city copies its row, later reads of that
+//city use the copy. Rows stay sorted by target, so lookups are still binary searches, and an
+//edit only costs O(degree) for the two cities of the road
+final class EdgeOverlay {
+
+    //Row of one edited city, replaced as a whole on every edit
+    private static final class Row {
+        final int[] targets;
+        final int[] weights;
+
+        Row(int[] targets, int[] weights) {
+            this.targets = targets;
+            this.weights = weights;
+        }
+    }
+
+    private final int vertexCount;
+    //null until the first edit, then null for the cities that were never edited
+    private Row[] rows;
+    //Roads added minus roads removed
+    private int edgeDelta;
+
+    EdgeOverlay(int vertexCount) {
+        this.vertexCount = vertexCount;
+    }
+
+    boolean isEdited(int vertex) {
+        return rows != null && rows[vertex] != null;
+    }
+
+    //The methods below are only for edited cities
+    int getDegree(int vertex) {
+        return rows[vertex].targets.length;
+    }
+
+    int getNeighbor(int vertex, int k) {
+        return rows[vertex].targets[k];
+    }
+
+    int getNeighborWeight(int vertex, int k) {
+        return rows[vertex].weights[k];
+    }
+
+    int getEdgeWeight(int from, int to) {
+        Row row = rows[from];
+        int position = Arrays.binarySearch(row.targets, to);
+        return position >= 0 ? row.weights[position] : 0;
+    }
+
+    int getEdgeDelta() {
+        return edgeDelta;
+    }
+
+    //Sets the road from - to in both rows, 0 removes it; graph gives the rows not edited yet
+    void setEdgeWeight(WeightedGraph graph, int from, int to, int distance) {
+        if (rows == null)
+            rows = new Row[vertexCount];
+        boolean existed = graph.getEdgeWeight(from, to) > 0;
+        setEntry(graph, from, to, distance);
+        setEntry(graph, to, from, distance);
+        if (!existed && distance > 0) {
+            edgeDelta++;
+        } else if (existed && distance == 0) {
+            edgeDelta--;
+        }
+    }
+
+    private void setEntry(WeightedGraph graph, int vertex, int neighbour, int distance) {
+        Row row = rows[vertex];
+        if (row == null) {
+            int degree = graph.getDegree(vertex);
+            int[] targets = new int[degree];
+            int[] weights = new int[degree];
+            for (int k = 0; k < degree; k++) {
+                targets[k] = graph.getNeighbor(vertex, k);
+                weights[k] = graph.getNeighborWeight(vertex, k);
+            }
+            row = new Row(targets, weights);
+        }
+        int[] targets = row.targets;
+        int[] weights = row.weights;
+        int position = Arrays.binarySearch(targets, neighbour);
+        if (position >= 0 && distance > 0) {
+            weights = weights.clone();
+            weights[position] = distance;
+        } else if (position >= 0) {
+            targets = remove(targets, position);
+            weights = remove(weights, position);
+        } else if (distance > 0) {
+            int insert = -position - 1;
+            targets = insert(targets, insert, neighbour);
+            weights = insert(weights, insert, distance);
+        }
+        rows[vertex] = new Row(targets, weights);
+    }
+
+    private static int[] remove(int[] values, int position) {
+        int[] result = new int[values.length - 1];
+        System.arraycopy(values, 0, result, 0, position);
+        System.arraycopy(values, position + 1, result, position, result.length - position);
+        return result;
+    }
+
+    private static int[] insert(int[] values, int position, int value) {
+        int[] result = new int[values.length + 1];
+        System.arraycopy(values, 0, result, 0, position);
+        result[position] = value;
+        System.arraycopy(values, position, result, position + 1, values.length - position);
+        return result;
+    }
+}
@@ -0,0 +1,147 @@
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+//Builds simple depot-rooted paths that fit in the working time, without rejection sampling
+//Each step only goes to unvisited neighbours from which the target can still be reached in time,
+//using the shortest distance to the target as a lower bound. A walk takes at most n steps and
+//a call makes at most MAX_ATTEMPTS walks before it falls back to the shortest path itself
+//Working arrays are kept per thread: visited cities are generation-stamped like
+//RouteValidator.PathMarks, and the path buffer is sized by hops, so a walk costs O(hops * degree)
+//and allocates only its result. generateRoute builds the Route directly on that one array
+public class FeasiblePathGenerator {
+
+    private static final int MAX_ATTEMPTS = 8;
+
+    private final WeightedGraph graph;
+    private final ShortestPaths shortestPaths;
+    private final double maxTime;
+    private final ThreadLocal<Scratch> scratch;
+
+    private static final class Scratch {
+        final RouteValidator.PathMarks visited;
+        int[] candidates = new int[16];
+        int[] path;
+        //Distance of the last walk that was found
+        int distance;
+
+        Scratch(int vertexCount, int maxHops) {
+            visited = new RouteValidator.PathMarks(vertexCount);
+            path = new int[maxHops + 1];
+        }
+    }
+
+    public FeasiblePathGenerator(WeightedGraph graph, ShortestPaths shortestPaths, double maxTime) {
+        this.graph = graph;
+        this.shortestPaths = shortestPaths;
+        this.maxTime = maxTime;
+        // Every hop costs at least its stop time, which bounds the length of any feasible path
+        int maxHops = (int) Math.min(graph.getVertexCount(), Math.max(1, maxTime / Route.travelTime(0, 1)));
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(graph.getVertexCount(), maxHops));
+    }
+
+    //True if some path start -> end of at least one hop may fit in the working time
+    public boolean canReach(int start, int end) {
+        return start != end && shortestPaths.isReachable(start, end)
+                && Route.travelTime(shortestPaths.getDistance(start, end), 1) <= maxTime;
+    }
+
+    //A random simple path start -> end with at least minHops hops, or PathResult.NONE
+    public PathResult generate(int start, int end, int minHops, RandomGenerator rng) {
+        if (!canReach(start, end)) {
+            return PathResult.NONE;
+        }
+        Scratch work = scratch.get();
+        int pathSize = walks(start, end, minHops, rng, work);
+        if (pathSize > 0) {
+            return new PathResult(Arrays.copyOf(work.path, pathSize), work.distance, pathSize - 1);
+        }
+        return shortestPathFallback(start, end, minHops);
+    }
+
+    //Same as generate, as a Route that owns the path array, or null
+    Route generateRoute(int start, int end, int minHops, RandomGenerator rng) {
+        if (!canReach(start, end)) {
+            return null;
+        }
+        Scratch work = scratch.get();
+        int pathSize = walks(start, end, minHops, rng, work);
+        if (pathSize > 0) {
+            return new Route(Arrays.copyOf(work.path, pathSize), work.distance, graph);
+        }
+        PathResult fallback = shortestPathFallback(start, end, minHops);
+        return fallback.isFound() ? new Route(fallback, graph) : null;
+    }
+
+    //Up to MAX_ATTEMPTS walks, returns the number of cities of the first one found, 0 if none was
+    private int walks(int start, int end, int minHops, RandomGenerator rng, Scratch work) {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            // A new generation empties the visited set in O(1)
+            work.visited.next();
+            int pathSize = walk(start, end, minHops, rng, work);
+            if (pathSize > 0) {
+                return pathSize;
+            }
+        }
+        return 0;
+    }
+
+    //Leaves the path in work.path and its distance in work.distance, returns its number of cities
+    //or 0 at a dead end
+    private int walk(int start, int end, int minHops, RandomGenerator rng, Scratch work) {
+        RouteValidator.PathMarks visited = work.visited;
+        int[] path = work.path;
+        int pathSize = 0;
+        int totalDistance = 0;
+        int current = start;
+        visited.add(current);
+        path[pathSize++] = current;
+
+        while (current != end) {
+            int hops = pathSize; // hops after the next step
+            int candidateCount = 0;
+            if (work.candidates.length < graph.getDegree(current)) {
+                work.candidates = new int[Math.max(graph.getDegree(current), work.candidates.length * 2)];
+            }
+            int[] candidates = work.candidates;
+            // The graph is undirected, so distances to the target are read from the target's row
+            for (int k = 0; k < graph.getDegree(current); k++) {
+                int next = graph.getNeighbor(current, k);
+                if (visited.contains(next)) {
+                    continue;
+                }
+                int distance = totalDistance + graph.getNeighborWeight(current, k);
+                if (next == end) {
+                    if (hops >= minHops && Route.travelTime(distance, hops) <= maxTime) {
+                        candidates[candidateCount++] = k;
+                    }
+                } else if (shortestPaths.isReachable(end, next)
+                        && Route.travelTime(distance + shortestPaths.getDistance(end, next), hops + 1) <= maxTime) {
+                    candidates[candidateCount++] = k;
+                }
+            }
+            if (candidateCount == 0) {
+                return 0; // Dead end, every way forward is visited or too long
+            }
+            int pick = candidates[rng.nextInt(candidateCount)];
+            totalDistance += graph.getNeighborWeight(current, pick);
+            current = graph.getNeighbor(current, pick);
+            visited.add(current);
+            if (pathSize == path.length) {
+                path = Arrays.copyOf(path, path.length * 2);
+                work.path = path;
+            }
+            path[pathSize++] = current;
+        }
+        work.distance = totalDistance;
+        return pathSize;
+    }
+
+    private PathResult shortestPathFallback(int start, int end, int minHops) {
+        int hops = shortestPaths.getHops(start, end);
+        int distance = shortestPaths.getDistance(start, end);
+        if (hops < minHops || Route.travelTime(distance, hops) > maxTime) {
+            return PathResult.NONE;
+        }
+        return new PathResult(shortestPaths.getPath(start, end), distance, hops);
+    }
+}
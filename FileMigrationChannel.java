@@ -0,0 +1,85 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+//Migration between islands running in separate processes through a shared directory
+//Island i of run r writes its migrants for epoch e to r-epoch-e-island-i.routes, one route per
+//line as tab-separated city names. Files are written to a temporary name and then moved, so a
+//reader never sees half a file. The run id keeps runs that share a directory apart, and the
+//island that collects the final routes deletes the run's files once every island is done
+public class FileMigrationChannel {
+
+    private static final long POLL_MILLIS = 20;
+
+    private final Path directory;
+    private final String runId;
+    private final long timeoutMillis;
+
+    public FileMigrationChannel(Path directory, String runId, long timeoutMillis) throws IOException {
+        if (runId.isEmpty() || !runId.matches("[A-Za-z0-9_.-]+"))
+            throw new IllegalArgumentException("Invalid run id: " + runId);
+        this.directory = Files.createDirectories(directory);
+        this.runId = runId;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public void send(int epoch, int island, List<Route> migrants) throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (Route route : migrants) {
+            text.append(String.join("\t", route.getPath())).append('\n');
+        }
+        Path target = file(epoch, island);
+        Path temporary = directory.resolve(target.getFileName() + ".tmp");
+        Files.writeString(temporary, text, StandardCharsets.UTF_8);
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    //Waits up to the timeout for the island's file, a missing island sends no migrants
+    //Routes naming unknown cities or driving on a road the graph does not have are dropped
+    public List<Route> receive(int epoch, int island, WeightedGraph graph) throws IOException, InterruptedException {
+        Path source = file(epoch, island);
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (!Files.exists(source)) {
+            if (System.currentTimeMillis() >= deadline)
+                return new ArrayList<>();
+            Thread.sleep(POLL_MILLIS);
+        }
+        List<Route> routes = new ArrayList<>();
+        for (String line : Files.readAllLines(source, StandardCharsets.UTF_8)) {
+            if (line.isEmpty())
+                continue;
+            int[] path = graph.toIds(Arrays.asList(line.split("\t")));
+            if (graph.validateRoute(path))
+                routes.add(new Route(path, graph));
+        }
+        return routes;
+    }
+
+    //Deletes the files one island left from an earlier run with the same id
+    public void clear(int island) throws IOException {
+        delete(runId + "-epoch-*-island-" + island + ".routes*");
+    }
+
+    //Deletes every file of this run, only safe once all islands have stopped reading
+    public void clearRun() throws IOException {
+        delete(runId + "-epoch-*");
+    }
+
+    private void delete(String glob) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, glob)) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private Path file(int epoch, int island) {
+        return directory.resolve(runId + "-epoch-" + epoch + "-island-" + island + ".routes");
+    }
+}
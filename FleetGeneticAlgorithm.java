@@ -0,0 +1,257 @@
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.random.RandomGenerator;
+import java.util.stream.IntStream;
+
+//Fleet-level mode: an individual is a full plan for every customer instead of a single route
+//The chromosome is a giant tour, an order of all customers, and the split decoder cuts it
+//into depot-rooted vehicle trips that each fit in the working time. Consecutive customers of a
+//trip are joined by shortest paths, so the order alone decides the plan. Fitness is computed
+//once per solution and minimises the number of vehicles first and the total time second
+public class FleetGeneticAlgorithm {
+
+    private List<FleetSolution> population;
+    private WeightedGraph graph;
+    private int populationSize;
+    private double mutationRate;
+    private int depotIndex;
+    //Every city that a vehicle can reach and serve within the working time
+    private int[] customers;
+    private ShortestPaths shortestPaths;
+    private Random rand;
+    //Parallel generation mode and its random streams
+    private ParallelTasks tasks;
+    private SelectionStrategy selectionStrategy = new TournamentSelection(2);
+    private double[] fitness = new double[0];
+    private ThreadLocal<RouteValidator.PathMarks> marks;
+
+    public FleetGeneticAlgorithm(WeightedGraph graph, int populationSize, double mutationRate, String depot, long seed,
+            ForkJoinPool pool) {
+        this.graph = graph;
+        this.populationSize = populationSize;
+        this.mutationRate = mutationRate;
+        this.depotIndex = graph.getIndex(depot);
+        if (depotIndex == -1)
+            throw new IllegalArgumentException("Unknown depot: " + depot);
+        // No trip can reach a city farther from the depot than one hop of the working time
+        this.shortestPaths = new ShortestPaths(graph, Route.maxDistance(Route.MAX_WORKING_TIME, 1));
+        this.customers = IntStream.range(0, graph.getVertexCount())
+                .filter(city -> city != depotIndex && shortestPaths.isReachable(depotIndex, city)
+                        && Route.travelTime(shortestPaths.getDistance(depotIndex, city),
+                                shortestPaths.getHops(depotIndex, city)) <= Route.MAX_WORKING_TIME)
+                .toArray();
+        if (customers.length == 0)
+            throw new IllegalStateException("No city can be served from " + depot + " within the working time");
+        this.marks = ThreadLocal.withInitial(() -> new RouteValidator.PathMarks(graph.getVertexCount()));
+        this.rand = new Random(seed);
+        this.tasks = new ParallelTasks(seed, pool);
+        this.population = initializePopulation();
+    }
+
+    //Strategies keep per-generation state, so each FleetGeneticAlgorithm needs its own instance
+    public void setSelectionStrategy(SelectionStrategy selectionStrategy) {
+        this.selectionStrategy = selectionStrategy;
+    }
+
+    //Cities that can be served at all, the others are out of reach of any vehicle
+    public int[] getCustomers() {
+        return customers.clone();
+    }
+
+    //Split decoder (Prins): the best cut of a fixed tour into trips is a shortest path over the
+    //auxiliary DAG whose nodes are the cut positions 0..n, where arc i -> j + 1 is the trip serving
+    //tour[i..j] and costs one working day plus its travel time, the same key as getCost. For a
+    //fixed i the trip time only grows with j, so the scan stops at the first customer that no
+    //longer fits and the work is bounded by n times the longest trip
+    FleetSolution decode(int[] tour) {
+        int n = tour.length;
+        double[] best = new double[n + 1];
+        int[] cut = new int[n + 1];
+        Arrays.fill(best, Double.POSITIVE_INFINITY);
+        best[0] = 0;
+        for (int i = 0; i < n; i++) {
+            if (best[i] == Double.POSITIVE_INFINITY)
+                continue;
+            int tripDistance = 0;
+            int tripHops = 0;
+            int previous = depotIndex;
+            for (int j = i; j < n; j++) {
+                int distance = shortestPaths.getDistance(previous, tour[j]);
+                if (distance == ShortestPaths.UNREACHABLE)
+                    break;
+                tripDistance += distance;
+                tripHops += shortestPaths.getHops(previous, tour[j]);
+                double time = Route.travelTime(tripDistance, tripHops);
+                if (time > Route.MAX_WORKING_TIME)
+                    break;
+                double cost = best[i] + Route.MAX_WORKING_TIME + time;
+                if (cost < best[j + 1]) {
+                    best[j + 1] = cost;
+                    cut[j + 1] = i;
+                }
+                previous = tour[j];
+            }
+        }
+        // Every customer fits in a trip of its own, so the last position is always reached
+        int trips = 0;
+        for (int j = n; j > 0; j = cut[j]) {
+            trips++;
+        }
+        int[] tripStarts = new int[trips + 1];
+        tripStarts[trips] = n;
+        for (int j = n, t = trips; j > 0; j = cut[j]) {
+            tripStarts[--t] = cut[j];
+        }
+        int totalDistance = 0;
+        double totalTime = 0;
+        for (int t = 0; t < trips; t++) {
+            int tripDistance = 0;
+            int tripHops = 0;
+            int previous = depotIndex;
+            for (int j = tripStarts[t]; j < tripStarts[t + 1]; j++) {
+                tripDistance += shortestPaths.getDistance(previous, tour[j]);
+                tripHops += shortestPaths.getHops(previous, tour[j]);
+                previous = tour[j];
+            }
+            totalDistance += tripDistance;
+            totalTime += Route.travelTime(tripDistance, tripHops);
+        }
+        return new FleetSolution(tour, tripStarts, totalDistance, totalTime, best[n]);
+    }
+
+    //Generate random tours for the initial population
+    private List<FleetSolution> initializePopulation() {
+        FleetSolution[] initialPopulation = new FleetSolution[populationSize];
+        tasks.runSeeded(populationSize, (i, rng) -> {
+            int[] tour = customers.clone();
+            shuffle(tour, 0, tour.length, rng);
+            initialPopulation[i] = decode(tour);
+        });
+        return new ArrayList<>(Arrays.asList(initialPopulation));
+    }
+
+    private static void shuffle(int[] values, int from, int to, RandomGenerator rng) {
+        for (int i = to - 1; i > from; i--) {
+            int j = from + rng.nextInt(i - from + 1);
+            int value = values[i];
+            values[i] = values[j];
+            values[j] = value;
+        }
+    }
+
+    // Selection, the fitness distribution is built once per generation
+    private List<FleetSolution> selection() {
+        int size = population.size();
+        if (fitness.length < size) {
+            fitness = new double[size];
+        }
+        for (int i = 0; i < size; i++) {
+            fitness[i] = population.get(i).getFitness();
+        }
+        selectionStrategy.prepare(fitness, size);
+        List<FleetSolution> selected = new ArrayList<>(populationSize);
+        for (int i = 0; i < populationSize; i++) {
+            selected.add(population.get(selectionStrategy.select(rand)));
+        }
+        return selected;
+    }
+
+    //Order crossover (OX) and inversion mutation, each pair of parents is an independent task
+    private List<FleetSolution> breed(List<FleetSolution> selected) {
+        int pairs = selected.size() / 2;
+        FleetSolution[] offspring = new FleetSolution[pairs * 2];
+        tasks.runSeeded(pairs, (pair, rng) -> {
+            int[] parent1 = selected.get(pair * 2).getTour();
+            int[] parent2 = selected.get(pair * 2 + 1).getTour();
+            int from = rng.nextInt(parent1.length);
+            int to = from + rng.nextInt(parent1.length - from);
+            int[] child1 = orderCrossover(parent1, parent2, from, to);
+            int[] child2 = orderCrossover(parent2, parent1, from, to);
+            mutate(child1, rng);
+            mutate(child2, rng);
+            offspring[pair * 2] = decode(child1);
+            offspring[pair * 2 + 1] = decode(child2);
+        });
+        return new ArrayList<>(Arrays.asList(offspring));
+    }
+
+    //The child keeps first[from..to] in place and takes the other customers in the order of second
+    //Membership of the kept segment uses the per-thread marks, O(n) with no allocation besides the child
+    private int[] orderCrossover(int[] first, int[] second, int from, int to) {
+        int[] child = new int[first.length];
+        RouteValidator.PathMarks kept = marks.get();
+        kept.next();
+        for (int i = from; i <= to; i++) {
+            child[i] = first[i];
+            kept.add(first[i]);
+        }
+        int position = (to + 1) % child.length;
+        for (int k = 0; k < second.length; k++) {
+            int city = second[(to + 1 + k) % second.length];
+            if (!kept.contains(city)) {
+                child[position] = city;
+                position = (position + 1) % child.length;
+            }
+        }
+        return child;
+    }
+
+    //Reverses a random part of the tour
+    private void mutate(int[] tour, RandomGenerator rng) {
+        if (rng.nextDouble() >= mutationRate || tour.length < 2)
+            return;
+        int from = rng.nextInt(tour.length);
+        int to = from + rng.nextInt(tour.length - from);
+        for (int i = from, j = to; i < j; i++, j--) {
+            int city = tour[i];
+            tour[i] = tour[j];
+            tour[j] = city;
+        }
+    }
+
+    //Replacement, with preservation of 30%
+    private void replacement(List<FleetSolution> offspring) {
+        int numberOfElites = (int) (populationSize * .3);
+        population.sort((a, b) -> Double.compare(a.getCost(), b.getCost()));
+        List<FleetSolution> nextGeneration = new ArrayList<>(population.subList(0, numberOfElites));
+        int fromOffspring = Math.min(offspring.size(), populationSize - numberOfElites);
+        nextGeneration.addAll(offspring.subList(0, fromOffspring));
+        //Small populations breed fewer offspring than places, the next best parents fill the rest
+        nextGeneration.addAll(population.subList(numberOfElites, populationSize - fromOffspring));
+        population = nextGeneration;
+        Collections.shuffle(population, rand);
+    }
+
+    public FleetSolution getBestSolution() {
+        return Collections.min(population, (a, b) -> Double.compare(a.getCost(), b.getCost()));
+    }
+
+    //Main Genetic Algorithm method
+    public FleetSolution findBestSolution(int numberOfGenerations) {
+        for (int generations = 0; generations < numberOfGenerations; generations++) {
+            List<FleetSolution> offspring = breed(selection());
+            replacement(offspring);
+        }
+        return getBestSolution();
+    }
+
+    //One Route per vehicle, the customers of a trip joined by shortest paths
+    //A route may pass through cities that another trip serves, so routes are not always simple
+    public List<Route> toRoutes(FleetSolution solution) {
+        List<Route> routes = new ArrayList<>(solution.getVehicles());
+        for (int trip = 0; trip < solution.getVehicles(); trip++) {
+            int[] stops = solution.getTrip(trip);
+            int[] path = new int[] {depotIndex};
+            int previous = depotIndex;
+            for (int city : stops) {
+                int[] leg = shortestPaths.getPath(previous, city);
+                int size = path.length;
+                path = Arrays.copyOf(path, size + leg.length - 1);
+                System.arraycopy(leg, 1, path, size, leg.length - 1);
+                previous = city;
+            }
+            routes.add(new Route(path, graph));
+        }
+        return routes;
+    }
+}
@@ -0,0 +1,53 @@
+import java.util.Arrays;
+
+//A complete fleet plan: every served customer in one giant tour, split into vehicle trips
+//Trip t serves tour[tripStarts[t] .. tripStarts[t + 1] - 1] starting from the depot
+//All totals are computed once, when the tour is decoded
+public final class FleetSolution {
+
+    private final int[] tour;
+    private final int[] tripStarts;
+    private final int totalDistance;
+    private final double totalTime;
+    private final double cost;
+
+    FleetSolution(int[] tour, int[] tripStarts, int totalDistance, double totalTime, double cost) {
+        this.tour = tour;
+        this.tripStarts = tripStarts;
+        this.totalDistance = totalDistance;
+        this.totalTime = totalTime;
+        this.cost = cost;
+    }
+
+    //The internal array, not a copy
+    public int[] getTour() {
+        return tour;
+    }
+
+    public int getVehicles() {
+        return tripStarts.length - 1;
+    }
+
+    //The customers of one trip, in visiting order
+    public int[] getTrip(int trip) {
+        return Arrays.copyOfRange(tour, tripStarts[trip], tripStarts[trip + 1]);
+    }
+
+    public int getTotalDistance() {
+        return totalDistance;
+    }
+
+    public double getTotalTime() {
+        return totalTime;
+    }
+
+    //Vehicles first, then time
+    public double getCost() {
+        return cost;
+    }
+
+    //Fitness
+    public double getFitness() {
+        return 1.0 / cost;
+    }
+}
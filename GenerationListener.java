@@ -0,0 +1,6 @@
+//Called by GeneticAlgorithm on the calling thread after every generation
+//Metrics are only collected while at least one listener is registered
+public interface GenerationListener {
+
+    void onGeneration(GenerationMetrics metrics);
+}
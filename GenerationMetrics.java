@@ -0,0 +1,80 @@
+//What one generation of GeneticAlgorithm.findBestRoutes did
+//Times and allocations are per phase, allocations are those of the calling thread and of the
+//tasks it ran in the ForkJoinPool, and are -1 when the JVM cannot measure them
+public class GenerationMetrics {
+
+    public enum Phase {
+        SELECTION, CROSSOVER, MUTATION, LOCAL_SEARCH, REPLACEMENT, EXTRACTION
+    }
+
+    private final int generation;
+    private final double bestFitness;
+    private final double meanFitness;
+    private final double worstFitness;
+    private final double diversity;
+    private final int distinctRoutes;
+    private final long[] nanos;
+    private final long[] allocatedBytes;
+    private final long routeRetries;
+
+    public GenerationMetrics(int generation, double bestFitness, double meanFitness, double worstFitness,
+            double diversity, int distinctRoutes, long[] nanos, long[] allocatedBytes, long routeRetries) {
+        this.generation = generation;
+        this.bestFitness = bestFitness;
+        this.meanFitness = meanFitness;
+        this.worstFitness = worstFitness;
+        this.diversity = diversity;
+        this.distinctRoutes = distinctRoutes;
+        this.nanos = nanos.clone();
+        this.allocatedBytes = allocatedBytes.clone();
+        this.routeRetries = routeRetries;
+    }
+
+    //Counted from 0 within one call to findBestRoutes
+    public int getGeneration() {
+        return generation;
+    }
+
+    public double getBestFitness() {
+        return bestFitness;
+    }
+
+    public double getMeanFitness() {
+        return meanFitness;
+    }
+
+    public double getWorstFitness() {
+        return worstFitness;
+    }
+
+    //Share of different paths in the population, 1 when no two routes are the same
+    public double getDiversity() {
+        return diversity;
+    }
+
+    //Routes found by the extraction, -1 if there was none in this generation
+    public int getDistinctRoutes() {
+        return distinctRoutes;
+    }
+
+    public long getNanos(Phase phase) {
+        return nanos[phase.ordinal()];
+    }
+
+    public long getAllocatedBytes(Phase phase) {
+        return allocatedBytes[phase.ordinal()];
+    }
+
+    public long getTotalNanos() {
+        long total = 0;
+        for (long value : nanos) {
+            total += value;
+        }
+        return total;
+    }
+
+    //Extra attempts of the route generation retry loops, children of a crossover included
+    public long getRouteRetries() {
+        return routeRetries;
+    }
+}
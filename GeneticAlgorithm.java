@@ -1,260 +1,720 @@
-import java.util.*;
-import java.util.stream.Collectors;
-import java.io.PrintWriter;
-import java.io.FileNotFoundException;
-
-public class GeneticAlgorithm {
-
-    private final int MIN_ROUTE_LENGTH = 3;
-    private List<Route> population;
-    private Graph graph;
-    private int populationSize;
-    private double mutationRate;
-    private String depotName;
-    private Random rand = new Random();
-
-    public GeneticAlgorithm(Graph graph, int populationSize, double mutationRate, String depot) {
-        this.graph = graph;
-        this.populationSize = populationSize;
-        this.mutationRate = mutationRate;
-        this.depotName = depot;
-        this.population = initializePopulation();
-    }
-
-    //Checks of a route is valid
-    private boolean isValid(Route route) {
-        if (route.getTotalTime() > route.getMAX_WORKING_TIME())
-            return false;
-        if (route.getCities().first != depotName)
-            return false;
-        List<String> path = route.getPath();
-        for (int i = 1; i < path.size(); i++) {
-            if (path.get(i).equals(depotName)) {
-                return false;
-            }
-        }
-        boolean hasDuplicates = path.stream()
-                .collect(Collectors.groupingBy(e -> e, Collectors.counting()))
-                .values()
-                .stream()
-                .anyMatch(count -> count > 1);
-        if (hasDuplicates)
-            return false;
-        return true;
-    }
-
-    //Checks if 2 routes overlap
-    private boolean doRoutesOverlap(Route route1, Route route2) {
-        List<String> path1 = route1.getPath();
-        List<String> path2 = route2.getPath();
-        for (int i = 1; i < path1.size(); i++) {
-            for (int j = 1; j < path2.size(); j++)
-                if (path1.get(i).equals(path2.get(j))) {
-                    return true; // Found a common city
-                }
-        }
-        return false; // No common cities found
-    }
-
-    //Methods for generating random routes
-    private Route generateRanRoute() {
-        int vertSize = graph.getVertices().length;
-        String randCityString = graph.getVertices()[rand.nextInt(vertSize)];
-        return new Route(new Pair<String, String>(depotName, randCityString), graph);
-    }
-
-    private Route generateRanRouteString(String City) {
-        return new Route(new Pair<String, String>(depotName, City), graph);
-    }
-
-    private Route getRouteWithfixLenght() {
-        Route randomRoute = generateRanRoute();
-        while (!isValid(randomRoute) || randomRoute.getRouteLenght() < MIN_ROUTE_LENGTH) {
-            randomRoute = generateRanRoute();
-        }
-        return randomRoute;
-    }
-
-    private Route getRouteWithfixLenghtString(String City) {
-        Route randomRoute = generateRanRouteString(City);
-        while (!isValid(randomRoute) || randomRoute.getRouteLenght() < MIN_ROUTE_LENGTH) {
-            randomRoute = generateRanRoute();
-        }
-        return randomRoute;
-    }
-
-    // Generate random routes for the initial population
-    private List<Route> initializePopulation() {
-        List<Route> initialPopulation = new ArrayList<>();
-        for (int i = 0; i < populationSize; i++) {
-            initialPopulation.add(getRouteWithfixLenght());
-        }
-        return initialPopulation;
-    }
-
-    // Selection using rouletteWheelSelection
-    private Route rouletteWheelSelection() {
-        double totalFitness = population.stream().mapToDouble(Route::getFitness).sum();
-        double randomValue = rand.nextDouble() * totalFitness;
-        double runningSum = 0;
-
-        for (Route route : population) {
-            runningSum += route.getFitness();
-            if (runningSum >= randomValue) {
-                return route;
-            }
-        }
-        return population.get(population.size() - 1); // Fallback
-    }
-
-    private List<Route> selection() {
-        List<Route> selectedRoutes = new ArrayList<>();
-        for (int i = 0; i < populationSize; i++) {
-            selectedRoutes.add(rouletteWheelSelection());
-        }
-        return selectedRoutes;
-    }
-    //end selection
-
-    //Crossover
-    private List<Route> crossover(List<Route> selectedRoutes) {
-        List<Route> offspring = new ArrayList<>();
-        for (int i = 0; i < selectedRoutes.size() - 1; i += 2) {
-            Route parent1 = selectedRoutes.get(i);
-            Route parent2 = selectedRoutes.get(i + 1);
-            int sizePathP1 = parent1.getPath().size();
-            int sizePathP2 = parent2.getPath().size();
-            int randIndex1;
-            int randIndex2;
-            Route child1 = null;
-            Route child2 = null;
-            boolean check = true;
-
-            // Create two valid children using segments from both parents
-            while (check) {
-                check = true;
-                randIndex1 = rand.nextInt(sizePathP1 - 2) + 1;
-                randIndex2 = rand.nextInt(sizePathP2 - 2) + 1;
-                child1 = getRouteWithfixLenghtString(parent2.getPath().get(randIndex2));
-                if (!isValid(child1))
-                    check = false;
-                if (graph.validateRoute(child1.getPath()))
-                    check = false;
-                child2 = getRouteWithfixLenghtString(parent1.getPath().get(randIndex1));
-                if (!isValid(child2))
-                    check = false;
-                if (graph.validateRoute(child2.getPath()))
-                    check = false;
-                if (!check)
-                    continue;
-            }
-
-            // Add the children to the offspring list
-            offspring.add(child1);
-            offspring.add(child2);
-        }
-        return offspring;
-    }
-
-    //Mutations
-    private void mutate(List<Route> population) {
-        for (Route route : population) {
-            if (rand.nextDouble() < mutationRate) {
-                List<String> currentPath = route.getPath();
-                int replaceIndex = rand.nextInt(currentPath.size() - 2) + 1;
-                String newCity;
-                do {
-                    newCity = graph.getVertices()[rand.nextInt(graph.getVertices().length)];
-                } while (currentPath.contains(newCity));
-                currentPath.set(replaceIndex, newCity);
-                while (!graph.validateRoute(currentPath)) {
-                    do {
-                        newCity = graph.getVertices()[rand.nextInt(graph.getVertices().length)];
-                    } while (currentPath.contains(newCity));
-                    currentPath.set(replaceIndex, newCity);
-                }
-                route = new Route(currentPath, graph); // Update the route with the new path
-            }
-        }
-    }
-
-    //Replacement, with preservation of 30%
-    private void replacement(List<Route> offspring) {
-        int numberOfElites = (int) (populationSize * .3); // Define how many top individuals to preserve
-        // Sort the current population by fitness in descending order
-        population.sort((route1, route2) -> Double.compare(route2.getFitness(), route1.getFitness()));
-        // Preserve the top 'numberOfElites' from the current population
-        List<Route> nextGeneration = new ArrayList<>(population.subList(0, numberOfElites));
-        // Fill the rest of the next generation with offspring
-        nextGeneration.addAll(offspring.subList(0, populationSize - numberOfElites));
-        // Update the population with the next generation
-        population = nextGeneration;
-        // Shuffle the population to ensure random mixing
-        Collections.shuffle(population, rand);
-    }
-
-    //Extracts distinct routes from a list of routes
-    private List<Route> extractDistinctRoutes() {
-        population.sort((route1, route2) -> Double.compare(route2.getFitness(), route1.getFitness()));
-        List<Route> distinctRoutes = new ArrayList<>();
-        for (Route candidateRoute : population) {
-            boolean isDistinct = distinctRoutes.stream()
-                    .noneMatch(existingRoute -> doRoutesOverlap(existingRoute, candidateRoute));
-            if (isDistinct) {
-                distinctRoutes.add(candidateRoute);
-            }
-        }
-        return distinctRoutes;
-    }
-
-    //Main Genetic Algorithm method
-    public List<Route> findBestRoutes(int numberOfGenerations) {
-
-        List<Route> distinctRoutes = new ArrayList<>();
-
-        int generations = 0;
-
-        while (generations < numberOfGenerations) {
-            
-            // Selection
-            List<Route> selectedRoutes = selection();
-            // Crossover
-            List<Route> offspring = crossover(selectedRoutes);
-
-            // Mutation
-            mutate(offspring);
-
-            // Replacement
-            replacement(offspring);
-
-            // Extract distinct routes from the current population
-            distinctRoutes = extractDistinctRoutes();
-
-            generations++;
-        }
-
-        // Return the distinct routes
-        return distinctRoutes;
-    }
-
-    //Print results
-    public void printBestRoutes(List<Route> bestRoutes, Graph graph, int numRoutes) {
-        try (PrintWriter writer = new PrintWriter("output.txt")) {
-            // The following loop writes route information to 'output.txt'.
-            // Each time this method is called, it overwrites the file.
-            for (int i = 0; i < Math.min(numRoutes, bestRoutes.size()); i++) {
-                Route route = bestRoutes.get(i);
-                writer.println("Route " + (i + 1) + ":");
-                writer.println("Cities: " + String.join(" -> ", route.getPath()));
-                writer.println("Total Distance: " + route.getTotalDistance());
-                writer.println("Total Time: " + route.getTotalTime());
-                writer.println("Fitness: " + route.getFitness());
-                writer.println();
-            }
-        } catch (FileNotFoundException e) {
-            System.err.println("Error: Unable to write to file 'output.txt'.");
-            e.printStackTrace();
-        }
-    }
-
-}
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.random.RandomGenerator;
+import java.util.stream.IntStream;
+import java.io.PrintWriter;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+
+public class GeneticAlgorithm {
+
+    private static final int MIN_ROUTE_LENGTH = 3;
+    private static final int MAX_ROUTE_ATTEMPTS = 64;
+    private List<Route> population;
+    //Buffers reused every generation: the next population is built in nextPopulation and the two
+    //lists are swapped, so steady-state generations allocate only the new routes themselves
+    private List<Route> nextPopulation = new ArrayList<>();
+    private List<Route> selectionBuffer = new ArrayList<>();
+    private Route[] offspringArray = new Route[0];
+    private List<Route> offspringBuffer = new ArrayList<>();
+    private WeightedGraph graph;
+    private int populationSize;
+    private double mutationRate;
+    private String depotName;
+    private int depotIndex;
+    private Random rand;
+    //Parallel generation mode and its random streams
+    private ParallelTasks tasks;
+    private SelectionStrategy selectionStrategy = new RouletteWheelSelection();
+    private ReplacementEngine replacementEngine = new ReplacementEngine();
+    //Distinct paths of the population for the diversity metric, reused between generations
+    private final LongCounts pathCounts = new LongCounts(64);
+    private double[] fitness = new double[0];
+    private ShortestPaths shortestPaths;
+    private FeasiblePathGenerator pathGenerator;
+    private RouteValidator validator;
+    //Cities used by the distinct routes accepted so far, one bit per city
+    private long[] occupied;
+    //Distinct routes are extracted every extractionInterval generations, 0 means only at the end
+    private int extractionInterval = 1;
+    //Cities a route from the depot can end in within the working time
+    private int[] targets;
+    //Optional improvement of the offspring, null when disabled
+    private LocalSearch localSearch;
+    private long localSearchBudget;
+    //Metrics are only collected while there are listeners, the retry counter only counts then
+    private final List<GenerationListener> listeners = new ArrayList<>();
+    private boolean instrumented;
+    private final LongAdder routeRetries = new LongAdder();
+    //Anytime results: the routes of the latest extraction, readable from any thread while a run goes on
+    private volatile List<Route> currentBestRoutes = Collections.emptyList();
+    private Consumer<List<Route>> bestRoutesListener;
+    private volatile boolean stopRequested;
+    //Generations run over all calls of findBestRoutes, including those of a resumed checkpoint
+    private int completedGenerations;
+    private Path checkpointFile;
+    private int checkpointInterval;
+
+    public GeneticAlgorithm(WeightedGraph graph, int populationSize, double mutationRate, String depot) {
+        this(graph, populationSize, mutationRate, depot, new Random().nextLong(), null);
+    }
+
+    //With a fixed seed the results are the same for any pool size
+    public GeneticAlgorithm(WeightedGraph graph, int populationSize, double mutationRate, String depot, long seed,
+            ForkJoinPool pool) {
+        this(graph, populationSize, mutationRate, depot, seed, pool, null);
+    }
+
+    //shortestPaths from newShortestPaths(graph) can be shared by every GeneticAlgorithm on that
+    //graph, whatever the depot, so its rows are computed once; null builds a private one
+    //After a graph edit every GeneticAlgorithm sharing it must still be told with edgeChanged
+    public GeneticAlgorithm(WeightedGraph graph, int populationSize, double mutationRate, String depot, long seed,
+            ForkJoinPool pool, ShortestPaths shortestPaths) {
+        this.graph = graph;
+        this.populationSize = populationSize;
+        this.mutationRate = mutationRate;
+        this.depotName = depot;
+        this.depotIndex = graph.getIndex(depot);
+        if (depotIndex == -1)
+            throw new IllegalArgumentException("Unknown depot: " + depot);
+        if (shortestPaths == null) {
+            shortestPaths = newShortestPaths(graph);
+        } else if (shortestPaths.getGraph() != graph
+                || shortestPaths.getMaxDistance() < Route.maxDistance(Route.MAX_WORKING_TIME, 1)) {
+            throw new IllegalArgumentException("Shortest paths must come from newShortestPaths for this graph");
+        }
+        this.shortestPaths = shortestPaths;
+        this.pathGenerator = new FeasiblePathGenerator(graph, shortestPaths, Route.MAX_WORKING_TIME);
+        this.validator = new RouteValidator(graph, depotIndex, Route.MAX_WORKING_TIME);
+        this.occupied = new long[(graph.getVertexCount() + 63) / 64];
+        this.targets = IntStream.range(0, graph.getVertexCount())
+                .filter(city -> pathGenerator.canReach(depotIndex, city))
+                .toArray();
+        if (targets.length == 0)
+            throw new IllegalStateException("No city can be reached from " + depot + " within the working time");
+        this.rand = new Random(seed);
+        this.tasks = new ParallelTasks(seed, pool);
+        this.population = initializePopulation();
+    }
+
+    //The table the constructor needs
+    //No city of a route can be farther from the depot than one hop of the working time
+    public static ShortestPaths newShortestPaths(WeightedGraph graph) {
+        return new ShortestPaths(graph, Route.maxDistance(Route.MAX_WORKING_TIME, 1));
+    }
+
+    public void setForkJoinPool(ForkJoinPool pool) {
+        tasks.setPool(pool);
+    }
+
+    //Extracting every generation is only needed to watch the routes while the GA runs
+    public void setExtractionInterval(int extractionInterval) {
+        if (extractionInterval < 0)
+            throw new IllegalArgumentException("Extraction interval must not be negative");
+        this.extractionInterval = extractionInterval;
+    }
+
+    //Runs the local search on the offspring after mutation, for at most budgetNanos per generation
+    //0 disables it. Routes not reached within the budget are left as they are, so with a budget
+    //runs are no longer reproducible from the seed alone, Long.MAX_VALUE keeps them reproducible
+    public void setLocalSearchBudget(long budgetNanos) {
+        if (budgetNanos < 0)
+            throw new IllegalArgumentException("Local search budget must not be negative");
+        this.localSearchBudget = budgetNanos;
+        this.localSearch = budgetNanos == 0 ? null : new LocalSearch(graph, validator);
+    }
+
+    public void addGenerationListener(GenerationListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeGenerationListener(GenerationListener listener) {
+        listeners.remove(listener);
+    }
+
+    //Called on the running thread with every new set of distinct routes, how often depends on
+    //the extraction interval
+    public void setBestRoutesListener(Consumer<List<Route>> bestRoutesListener) {
+        this.bestRoutesListener = bestRoutesListener;
+    }
+
+    //The distinct routes of the latest extraction, empty before the first one
+    //Routes in the population are never changed in place, so the list can be read while the run goes on
+    public List<Route> getCurrentBestRoutes() {
+        return currentBestRoutes;
+    }
+
+    //Makes the run in progress stop after the current generation, safe to call from any thread
+    public void requestStop() {
+        stopRequested = true;
+    }
+
+    //Saves the population to file every interval generations, on a background thread
+    //Each run has its own writer, and waits for its last checkpoint and closes the writer before
+    //returning, so no writer thread outlives a run
+    public void setCheckpoint(Path file, int interval) {
+        if (interval < 1)
+            throw new IllegalArgumentException("Checkpoint interval must be positive");
+        this.checkpointFile = file;
+        this.checkpointInterval = interval;
+    }
+
+    public int getCompletedGenerations() {
+        return completedGenerations;
+    }
+
+    //Elitism, crowding or fitness sharing and duplicate removal, see ReplacementEngine
+    //Engines keep buffers between generations, so each GeneticAlgorithm needs its own instance
+    public void setReplacementEngine(ReplacementEngine replacementEngine) {
+        this.replacementEngine = replacementEngine;
+    }
+
+    //Strategies keep per-generation state, so each GeneticAlgorithm needs its own instance
+    public void setSelectionStrategy(SelectionStrategy selectionStrategy) {
+        this.selectionStrategy = selectionStrategy;
+    }
+
+    //Checks of a route is valid
+    private boolean isValid(Route route) {
+        return validator.isValid(route);
+    }
+
+    //Methods for generating random routes
+    //Paths come from the constrained generator, so they are simple and fit in the working time,
+    //null means no such path was found to that city
+    private Route generateRanRoute(RandomGenerator rng) {
+        return generateRanRouteString(targets[rng.nextInt(targets.length)], rng);
+    }
+
+    private Route generateRanRouteString(int city, RandomGenerator rng) {
+        return pathGenerator.generateRoute(depotIndex, city, MIN_ROUTE_LENGTH, rng);
+    }
+
+    //Both retry loops are bounded, the generator rarely fails so the limit is only hit
+    //when the depot has no route of MIN_ROUTE_LENGTH that fits in the working time
+    private Route getRouteWithfixLenght(RandomGenerator rng) {
+        Route randomRoute = generateRanRoute(rng);
+        int attempts = 1;
+        while (randomRoute == null || !isValid(randomRoute) || randomRoute.getRouteLenght() < MIN_ROUTE_LENGTH) {
+            if (attempts++ == MAX_ROUTE_ATTEMPTS)
+                throw noRouteFound();
+            randomRoute = generateRanRoute(rng);
+        }
+        if (instrumented)
+            routeRetries.add(attempts - 1);
+        return randomRoute;
+    }
+
+    private Route getRouteWithfixLenghtString(int city, RandomGenerator rng) {
+        Route randomRoute = generateRanRouteString(city, rng);
+        int attempts = 1;
+        while (randomRoute == null || !isValid(randomRoute) || randomRoute.getRouteLenght() < MIN_ROUTE_LENGTH) {
+            if (attempts++ == MAX_ROUTE_ATTEMPTS)
+                throw noRouteFound();
+            randomRoute = generateRanRoute(rng);
+        }
+        if (instrumented)
+            routeRetries.add(attempts - 1);
+        return randomRoute;
+    }
+
+    private IllegalStateException noRouteFound() {
+        return new IllegalStateException("No route of at least " + MIN_ROUTE_LENGTH + " hops from " + depotName
+                + " fits in the working time");
+    }
+
+    // Generate random routes for the initial population
+    private List<Route> initializePopulation() {
+        Route[] initialPopulation = new Route[populationSize];
+        tasks.runSeeded(populationSize, (i, rng) -> initialPopulation[i] = getRouteWithfixLenght(rng));
+        return new ArrayList<>(Arrays.asList(initialPopulation));
+    }
+
+    // Selection, the fitness distribution is built once per generation
+    private List<Route> selection() {
+        int size = population.size();
+        if (fitness.length < size) {
+            fitness = new double[size];
+        }
+        for (int i = 0; i < size; i++) {
+            fitness[i] = population.get(i).getFitness();
+        }
+        selectionStrategy.prepare(fitness, size);
+        selectionBuffer.clear();
+        for (int i = 0; i < populationSize; i++) {
+            selectionBuffer.add(population.get(selectionStrategy.select(rand)));
+        }
+        return selectionBuffer;
+    }
+    //end selection
+
+    //Crossover, each pair of parents is an independent task with its own random stream
+    private List<Route> crossover(List<Route> selectedRoutes) {
+        int pairs = selectedRoutes.size() / 2;
+        if (offspringArray.length != pairs * 2) {
+            offspringArray = new Route[pairs * 2];
+        }
+        Route[] children = offspringArray;
+        tasks.runSeeded(pairs, (pair, rng) -> {
+            int i = pair * 2;
+            Route parent1 = selectedRoutes.get(i);
+            Route parent2 = selectedRoutes.get(i + 1);
+            int sizePathP1 = parent1.getPathIds().length;
+            int sizePathP2 = parent2.getPathIds().length;
+            int randIndex1;
+            int randIndex2;
+            Route child1 = null;
+            Route child2 = null;
+            boolean check = true;
+
+            // Create two valid children using segments from both parents
+            while (check) {
+                check = true;
+                randIndex1 = rng.nextInt(sizePathP1 - 2) + 1;
+                randIndex2 = rng.nextInt(sizePathP2 - 2) + 1;
+                child1 = getRouteWithfixLenghtString(parent2.getPathIds()[randIndex2], rng);
+                if (!isValid(child1))
+                    check = false;
+                if (graph.validateRoute(child1.getPathIds()))
+                    check = false;
+                child2 = getRouteWithfixLenghtString(parent1.getPathIds()[randIndex1], rng);
+                if (!isValid(child2))
+                    check = false;
+                if (graph.validateRoute(child2.getPathIds()))
+                    check = false;
+                if (!check)
+                    continue;
+            }
+
+            // Add the children to the offspring list
+            children[i] = child1;
+            children[i + 1] = child2;
+        });
+        offspringBuffer.clear();
+        for (int i = 0; i < children.length; i++) {
+            offspringBuffer.add(children[i]);
+            // The list holds them now, the array must not keep them alive after replacement
+            children[i] = null;
+        }
+        return offspringBuffer;
+    }
+
+    //Mutations, a point mutation only changes the two edges around replaceIndex,
+    //so the route's distance and time are updated in place in O(1)
+    private void mutate(List<Route> population) {
+        tasks.runSeeded(population.size(), (i, rng) -> {
+            Route route = population.get(i);
+            if (rng.nextDouble() < mutationRate) {
+                int replaceIndex = rng.nextInt(route.getPathIds().length - 2) + 1;
+                int newCity = pickReplacement(route, replaceIndex, rng);
+                if (newCity != -1)
+                    route.replaceCity(replaceIndex, newCity);
+            }
+        });
+    }
+
+    //A random city that keeps the route valid at replaceIndex, or -1 if there is none
+    //Only neighbours of the previous city can be used, so the candidates are found in O(degree)
+    private int pickReplacement(Route route, int replaceIndex, RandomGenerator rng) {
+        int[] currentPath = route.getPathIds();
+        RouteValidator.PathMarks inPath = validator.mark(currentPath);
+        int previous = currentPath[replaceIndex - 1];
+        int candidateCount = 0;
+        int chosen = -1;
+        for (int k = 0; k < graph.getDegree(previous); k++) {
+            int city = graph.getNeighbor(previous, k);
+            if (inPath.contains(city))
+                continue;
+            int delta = route.deltaReplaceCity(replaceIndex, city);
+            if (delta == Route.NO_EDGE
+                    || Route.travelTime(route.getTotalDistance() + delta, route.getRouteLenght()) > Route.MAX_WORKING_TIME)
+                continue;
+            // Reservoir sampling keeps every valid city equally likely without a candidate list
+            candidateCount++;
+            if (rng.nextInt(candidateCount) == 0)
+                chosen = city;
+        }
+        return chosen;
+    }
+
+    //Memetic stage, each offspring is improved by one task, the deadline is shared by all of them
+    private void improve(List<Route> offspring) {
+        long start = System.nanoTime();
+        long deadline = localSearchBudget > Long.MAX_VALUE - start ? Long.MAX_VALUE : start + localSearchBudget;
+        tasks.run(offspring.size(), i -> {
+            if (System.nanoTime() < deadline)
+                localSearch.improve(offspring.get(i), deadline);
+        });
+    }
+
+    //Replacement
+    private void replacement(List<Route> offspring) {
+        // The engine keeps the elite (30% by default) and the offspring, without duplicate paths
+        List<Route> nextGeneration = nextPopulation;
+        replacementEngine.replace(population, offspring, nextGeneration, populationSize, rand, validator);
+        // Slots freed by duplicates get new random routes, which brings back diversity
+        int missing = populationSize - nextGeneration.size();
+        if (missing > 0) {
+            Route[] fresh = new Route[missing];
+            tasks.runSeeded(missing, (i, rng) -> fresh[i] = getRouteWithfixLenght(rng));
+            Collections.addAll(nextGeneration, fresh);
+        }
+        // Update the population with the next generation, the old list is reused next time
+        nextPopulation = population;
+        population = nextGeneration;
+        // Shuffle the population to ensure random mixing
+        Collections.shuffle(population, rand);
+    }
+
+    //Extracts distinct routes from a list of routes
+    private List<Route> extractDistinctRoutes() {
+        return selectDistinct(population);
+    }
+
+    //Greedy in fitness order: a route is kept if none of its cities, the depot aside,
+    //is used by a route kept before. Each candidate costs O(length) against the occupancy bitset
+    //Sorts the given list
+    public List<Route> selectDistinct(List<Route> candidates) {
+        candidates.sort((route1, route2) -> Double.compare(route2.getFitness(), route1.getFitness()));
+        Arrays.fill(occupied, 0L);
+        List<Route> distinctRoutes = new ArrayList<>();
+        for (Route candidateRoute : candidates) {
+            int[] path = candidateRoute.getPathIds();
+            boolean isDistinct = true;
+            for (int i = 1; i < path.length && isDistinct; i++) {
+                isDistinct = (occupied[path[i] >>> 6] & (1L << path[i])) == 0;
+            }
+            if (isDistinct) {
+                for (int i = 1; i < path.length; i++) {
+                    occupied[path[i] >>> 6] |= 1L << path[i];
+                }
+                distinctRoutes.add(candidateRoute);
+            }
+        }
+        return distinctRoutes;
+    }
+
+    //Migration between populations
+    //Copies of the fittest routes, for another population
+    public List<Route> getTopRoutes(int count) {
+        List<Route> sorted = new ArrayList<>(population);
+        sorted.sort((route1, route2) -> Double.compare(route2.getFitness(), route1.getFitness()));
+        List<Route> top = new ArrayList<>(Math.min(count, sorted.size()));
+        for (int i = 0; i < Math.min(count, sorted.size()); i++) {
+            top.add(new Route(sorted.get(i)));
+        }
+        return top;
+    }
+
+    //Replaces the least fit routes with the migrants that are valid for this depot
+    public void acceptMigrants(List<Route> migrants) {
+        population.sort((route1, route2) -> Double.compare(route2.getFitness(), route1.getFitness()));
+        int replaced = 0;
+        for (Route migrant : migrants) {
+            if (replaced == population.size())
+                break;
+            if (isValid(migrant) && migrant.getRouteLenght() >= MIN_ROUTE_LENGTH) {
+                population.set(population.size() - 1 - replaced, new Route(migrant));
+                replaced++;
+            }
+        }
+    }
+
+    //Continues from a checkpoint, the graph may have changed since, see seedPopulation
+    public int resumeFrom(Path checkpoint) throws IOException {
+        PopulationCheckpoint saved = PopulationCheckpoint.read(checkpoint);
+        seedPopulation(saved.getRoutes());
+        completedGenerations = saved.getGeneration();
+        return completedGenerations;
+    }
+
+    //Warm start from routes of an earlier solution or checkpoint, given as city names
+    //Routes that no longer fit the graph are repaired, those that cannot be are dropped, and the
+    //rest of the population is filled with new random routes. Returns how many routes were kept
+    public int seedPopulation(List<List<String>> routes) {
+        List<Route> seeded = new ArrayList<>(populationSize);
+        for (List<String> cities : routes) {
+            if (seeded.size() == populationSize)
+                break;
+            int[] path = new int[cities.size()];
+            for (int i = 0; i < path.length; i++) {
+                path[i] = graph.getIndex(cities.get(i));
+            }
+            Route route = repair(path);
+            if (route != null)
+                seeded.add(route);
+        }
+        int kept = seeded.size();
+        SplittableRandom rng = tasks.split();
+        while (seeded.size() < populationSize) {
+            seeded.add(getRouteWithfixLenght(rng));
+        }
+        population = seeded;
+        return kept;
+    }
+
+    //Keeps the cities of path in order as long as the route stays valid: unknown and repeated
+    //cities are skipped, a missing edge is bridged with the shortest path if it visits no city
+    //twice, and the route ends before the city that would exceed the working time
+    //null if less than MIN_ROUTE_LENGTH hops are left
+    private Route repair(int[] path) {
+        if (path.length == 0 || path[0] != depotIndex)
+            return null;
+        RouteValidator.PathMarks used = validator.mark(new int[] {depotIndex});
+        int[] repaired = new int[path.length];
+        int length = 1;
+        int distance = 0;
+        repaired[0] = depotIndex;
+        for (int k = 1; k < path.length; k++) {
+            int city = path[k];
+            int previous = repaired[length - 1];
+            if (city == -1 || used.contains(city))
+                continue;
+            int[] bridge = graph.getEdgeWeight(previous, city) != 0 ? new int[] {previous, city}
+                    : shortestPaths.getPath(previous, city);
+            if (bridge == null)
+                continue;
+            int bridgeDistance = 0;
+            boolean simple = true;
+            for (int i = 1; i < bridge.length; i++) {
+                bridgeDistance += graph.getEdgeWeight(bridge[i - 1], bridge[i]);
+                simple &= !used.contains(bridge[i]);
+            }
+            if (!simple)
+                continue;
+            if (Route.travelTime(distance + bridgeDistance, length - 1 + bridge.length - 1) > Route.MAX_WORKING_TIME)
+                break;
+            if (length + bridge.length - 1 > repaired.length)
+                repaired = Arrays.copyOf(repaired, Math.max(repaired.length * 2, length + bridge.length));
+            for (int i = 1; i < bridge.length; i++) {
+                used.add(bridge[i]);
+                repaired[length++] = bridge[i];
+            }
+            distance += bridgeDistance;
+        }
+        if (length - 1 < MIN_ROUTE_LENGTH)
+            return null;
+        Route route = new Route(Arrays.copyOf(repaired, length), distance, graph);
+        return isValid(route) ? route : null;
+    }
+
+    //Graph edits between runs
+    //Sets the distance of the road city1 - city2, 0 closes it, and updates only what depends on it:
+    //the shortest path rows that used or could use the road and the routes of the population
+    //that drive on it. Those are repaired as in seedPopulation and shortened by a local search
+    //pass, or replaced with new random routes if they cannot be repaired, and
+    //getCurrentBestRoutes() is refreshed. Returns how many routes were changed
+    //Any WeightedGraph can be edited, but not while findBestRoutes runs; other GeneticAlgorithms on
+    //the same graph must be told with edgeChanged
+    public int updateEdge(String city1, String city2, int distance) {
+        if (distance < 0)
+            throw new IllegalArgumentException("Distance must not be negative");
+        int oldDistance = checkedEdgeWeight(city1, city2);
+        graph.setEdgeWeight(graph.getIndex(city1), graph.getIndex(city2), distance);
+        return edgeChanged(city1, city2, oldDistance);
+    }
+
+    public int removeEdge(String city1, String city2) {
+        return updateEdge(city1, city2, 0);
+    }
+
+    //For an edit of the graph made elsewhere, oldDistance is the distance before the edit
+    public int edgeChanged(String city1, String city2, int oldDistance) {
+        checkedEdgeWeight(city1, city2);
+        int a = graph.getIndex(city1);
+        int b = graph.getIndex(city2);
+        int newDistance = graph.getEdgeWeight(a, b);
+        if (newDistance == oldDistance)
+            return 0;
+        shortestPaths.edgeChanged(a, b, oldDistance, newDistance);
+        this.targets = IntStream.range(0, graph.getVertexCount())
+                .filter(city -> pathGenerator.canReach(depotIndex, city))
+                .toArray();
+        if (targets.length == 0)
+            throw new IllegalStateException("No city can be reached from " + depotName + " within the working time");
+
+        // Only routes that drive on the road are touched, the rest of the population stays as it is
+        LocalSearch repairSearch = localSearch != null ? localSearch : new LocalSearch(graph, validator);
+        SplittableRandom rng = tasks.split();
+        int changed = 0;
+        for (int i = 0; i < population.size(); i++) {
+            int[] path = population.get(i).getPathIds();
+            if (!usesEdge(path, a, b))
+                continue;
+            Route repaired = repair(path);
+            if (repaired == null) {
+                repaired = getRouteWithfixLenght(rng);
+            } else {
+                repairSearch.improve(repaired, Long.MAX_VALUE);
+            }
+            // A new route, routes already in the population are never changed in place
+            population.set(i, repaired);
+            changed++;
+        }
+        if (changed > 0)
+            currentBestRoutes = Collections.unmodifiableList(extractDistinctRoutes());
+        return changed;
+    }
+
+    private int checkedEdgeWeight(String city1, String city2) {
+        int a = graph.getIndex(city1);
+        int b = graph.getIndex(city2);
+        if (a == -1 || b == -1)
+            throw new IllegalArgumentException("Unknown city: " + (a == -1 ? city1 : city2));
+        if (a == b)
+            throw new IllegalArgumentException("A road needs two different cities");
+        return graph.getEdgeWeight(a, b);
+    }
+
+    private static boolean usesEdge(int[] path, int a, int b) {
+        for (int i = 0; i + 1 < path.length; i++) {
+            if (path[i] == a && path[i + 1] == b || path[i] == b && path[i + 1] == a)
+                return true;
+        }
+        return false;
+    }
+
+    //Main Genetic Algorithm method
+    public List<Route> findBestRoutes(int numberOfGenerations) {
+        return findBestRoutes(TerminationPolicy.maxGenerations(numberOfGenerations));
+    }
+
+    //Runs until the policy or requestStop() ends the run, the final generation is always extracted
+    public List<Route> findBestRoutes(TerminationPolicy policy) {
+
+        List<Route> distinctRoutes = new ArrayList<>();
+
+        int generations = 0;
+        stopRequested = false;
+        policy.start();
+        boolean stop = policy.shouldStop(0, bestFitness());
+
+        // Without listeners the loop only pays one null check per phase
+        instrumented = !listeners.isEmpty();
+        PhaseRecorder recorder = instrumented ? new PhaseRecorder() : null;
+        tasks.setRecorder(recorder);
+
+        // Closing the writer waits for the last checkpoint and stops its thread
+        try (PopulationCheckpoint.Writer checkpoints = checkpointFile != null
+                ? new PopulationCheckpoint.Writer(checkpointFile, graph) : null) {
+            while (!stop) {
+                if (recorder != null)
+                    recorder.start();
+
+                // Selection
+                List<Route> selectedRoutes = selection();
+                if (recorder != null)
+                    recorder.mark(GenerationMetrics.Phase.SELECTION);
+                // Crossover
+                List<Route> offspring = crossover(selectedRoutes);
+                if (recorder != null)
+                    recorder.mark(GenerationMetrics.Phase.CROSSOVER);
+
+                // Mutation
+                mutate(offspring);
+                if (recorder != null)
+                    recorder.mark(GenerationMetrics.Phase.MUTATION);
+
+                // Local search
+                if (localSearch != null)
+                    improve(offspring);
+                if (recorder != null)
+                    recorder.mark(GenerationMetrics.Phase.LOCAL_SEARCH);
+
+                // Replacement
+                replacement(offspring);
+                if (recorder != null)
+                    recorder.mark(GenerationMetrics.Phase.REPLACEMENT);
+
+                stop = policy.shouldStop(generations + 1, bestFitness()) || stopRequested;
+
+                // Extract distinct routes from the current population
+                // The last generation is always extracted, the interval may have skipped it
+                boolean extract = extractionInterval > 0 && (generations + 1) % extractionInterval == 0 || stop;
+                if (extract) {
+                    distinctRoutes = extractDistinctRoutes();
+                    currentBestRoutes = Collections.unmodifiableList(distinctRoutes);
+                    if (bestRoutesListener != null)
+                        bestRoutesListener.accept(currentBestRoutes);
+                }
+                if (recorder != null) {
+                    recorder.mark(GenerationMetrics.Phase.EXTRACTION);
+                    publish(generations, extract ? distinctRoutes.size() : -1, recorder);
+                }
+
+                generations++;
+                completedGenerations++;
+                if (checkpoints != null && completedGenerations % checkpointInterval == 0)
+                    checkpoints.submit(completedGenerations, population.toArray(new Route[0]));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        instrumented = false;
+        tasks.setRecorder(null);
+
+        // Stopped before the first generation, the initial population is the result
+        if (generations == 0) {
+            distinctRoutes = extractDistinctRoutes();
+            currentBestRoutes = Collections.unmodifiableList(distinctRoutes);
+        }
+
+        // Return the distinct routes
+        return distinctRoutes;
+    }
+
+    private double bestFitness() {
+        double best = 0;
+        for (Route route : population) {
+            best = Math.max(best, route.getFitness());
+        }
+        return best;
+    }
+
+    //Fitness statistics of the new population, diversity is the share of different path hashes
+    private void publish(int generation, int distinctCount, PhaseRecorder recorder) {
+        double best = 0;
+        double worst = Double.MAX_VALUE;
+        double sum = 0;
+        LongCounts paths = pathCounts;
+        paths.clear();
+        for (Route route : population) {
+            double value = route.getFitness();
+            best = Math.max(best, value);
+            worst = Math.min(worst, value);
+            sum += value;
+            paths.add(route.getHash(), 1);
+        }
+        GenerationMetrics metrics = new GenerationMetrics(generation, best, sum / population.size(), worst,
+                (double) paths.size() / population.size(), distinctCount, recorder.getNanos(),
+                recorder.getAllocatedBytes(), routeRetries.sumThenReset());
+        for (GenerationListener listener : listeners) {
+            listener.onGeneration(metrics);
+        }
+    }
+
+    //Print results
+    public void printBestRoutes(List<Route> bestRoutes, WeightedGraph graph, int numRoutes) {
+        try (PrintWriter writer = new PrintWriter("output.txt")) {
+            // The following loop writes route information to 'output.txt'.
+            // Each time this method is called, it overwrites the file.
+            for (int i = 0; i < Math.min(numRoutes, bestRoutes.size()); i++) {
+                Route route = bestRoutes.get(i);
+                writer.println("Route " + (i + 1) + ":");
+                writer.println("Cities: " + String.join(" -> ", route.getPath()));
+                writer.println("Total Distance: " + route.getTotalDistance());
+                writer.println("Total Time: " + route.getTotalTime());
+                writer.println("Fitness: " + route.getFitness());
+                writer.println();
+            }
+        } catch (FileNotFoundException e) {
+            System.err.println("Error: Unable to write to file 'output.txt'.");
+            e.printStackTrace();
+        }
+    }
+
+}
@@ -0,0 +1,161 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+//Loading graphs from files
+//Edge lists are text files with one "city1,city2,distance" line per undirected edge, separated
+//by commas or tabs. Blank lines and lines starting with # are skipped, and so is a first line
+//whose distance is not a number (a header). Cities get their index in order of first appearance
+//The binary format is the CSR arrays as little-endian ints, see MappedCsrGraph
+public class GraphLoader {
+
+    private GraphLoader() {
+    }
+
+    //Picks the format from the file name, .bin files are memory-mapped
+    public static WeightedGraph load(Path path) throws IOException {
+        if (path.getFileName().toString().endsWith(".bin")) {
+            return MappedCsrGraph.open(path);
+        }
+        return loadEdgeList(path);
+    }
+
+    public static CsrGraph loadEdgeList(Path path) throws IOException {
+        Map<String, Integer> index = new HashMap<>();
+        List<String> vertices = new ArrayList<>();
+        int[] from = new int[1024];
+        int[] to = new int[1024];
+        int[] weight = new int[1024];
+        int edgeCount = 0;
+
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.strip();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split(line.indexOf('\t') >= 0 ? "\t" : ",");
+                if (fields.length != 3) {
+                    throw new IOException(path + ":" + lineNumber + ": expected city1,city2,distance");
+                }
+                int distance;
+                try {
+                    distance = Integer.parseInt(fields[2].strip());
+                } catch (NumberFormatException e) {
+                    if (lineNumber == 1) {
+                        continue; // Header line
+                    }
+                    throw new IOException(path + ":" + lineNumber + ": invalid distance '" + fields[2] + "'");
+                }
+                if (edgeCount == from.length) {
+                    from = Arrays.copyOf(from, edgeCount * 2);
+                    to = Arrays.copyOf(to, edgeCount * 2);
+                    weight = Arrays.copyOf(weight, edgeCount * 2);
+                }
+                from[edgeCount] = indexOf(fields[0].strip(), index, vertices);
+                to[edgeCount] = indexOf(fields[1].strip(), index, vertices);
+                weight[edgeCount] = distance;
+                edgeCount++;
+            }
+        }
+        return CsrGraph.fromEdges(vertices.toArray(new String[0]), from, to, weight, edgeCount);
+    }
+
+    private static int indexOf(String name, Map<String, Integer> index, List<String> vertices) {
+        Integer id = index.get(name);
+        if (id == null) {
+            id = vertices.size();
+            index.put(name, id);
+            vertices.add(name);
+        }
+        return id;
+    }
+
+    //Writes any graph in the binary format, other graphs than CsrGraph are converted first
+    //so the rows are sorted
+    public static void writeBinary(WeightedGraph graph, Path path) throws IOException {
+        CsrGraph csr = graph instanceof CsrGraph ? (CsrGraph) graph : CsrGraph.copyOf(graph);
+        int n = csr.getVertexCount();
+        int entryCount = csr.getEdgeCount() * 2;
+
+        byte[][] names = new byte[n][];
+        int nameBytes = 0;
+        for (int i = 0; i < n; i++) {
+            names[i] = csr.getVertexName(i).getBytes(StandardCharsets.UTF_8);
+            nameBytes += names[i].length;
+        }
+        long size = 4L * (MappedCsrGraph.HEADER_INTS + (n + 1) * 2L + entryCount * 2L) + nameBytes;
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Graph too large for a single graph file: " + size + " bytes");
+        }
+
+        Files.deleteIfExists(path);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer out = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            out.order(ByteOrder.LITTLE_ENDIAN);
+            out.putInt(MappedCsrGraph.MAGIC);
+            out.putInt(MappedCsrGraph.VERSION);
+            out.putInt(n);
+            out.putInt(entryCount);
+            out.putInt(nameBytes);
+            int offset = 0;
+            for (int v = 0; v < n; v++) {
+                out.putInt(offset);
+                offset += csr.getDegree(v);
+            }
+            out.putInt(offset);
+            for (int v = 0; v < n; v++) {
+                for (int k = 0; k < csr.getDegree(v); k++) {
+                    out.putInt(csr.getNeighbor(v, k));
+                }
+            }
+            for (int v = 0; v < n; v++) {
+                for (int k = 0; k < csr.getDegree(v); k++) {
+                    out.putInt(csr.getNeighborWeight(v, k));
+                }
+            }
+            int nameOffset = 0;
+            for (int i = 0; i < n; i++) {
+                out.putInt(nameOffset);
+                nameOffset += names[i].length;
+            }
+            out.putInt(nameOffset);
+            for (int i = 0; i < n; i++) {
+                out.put(names[i]);
+            }
+            out.force();
+        }
+    }
+
+    public static void convert(Path edgeList, Path binary) throws IOException {
+        writeBinary(loadEdgeList(edgeList), binary);
+    }
+
+    //Converter from the command line: java GraphLoader edges.csv graph.bin
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: java GraphLoader <edges.csv|edges.tsv> <graph.bin>");
+            System.exit(1);
+        }
+        long start = System.nanoTime();
+        convert(Paths.get(args[0]), Paths.get(args[1]));
+        System.out.println("Converted " + args[0] + " to " + args[1] + " in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+}
@@ -0,0 +1,121 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+//Island model: several GeneticAlgorithm populations evolve side by side, each on its own thread,
+//and every migrationInterval generations each island sends copies of its top routes to its
+//neighbours in the topology, where they replace the least fit routes
+//For islands in separate JVMs see IslandProcess
+public class IslandModel {
+
+    public enum Topology {
+        RING, FULLY_CONNECTED;
+
+        //Islands that send their migrants to the given island
+        public int[] sources(int island, int islandCount) {
+            if (islandCount == 1) {
+                return new int[0];
+            }
+            if (this == RING) {
+                return new int[] {(island - 1 + islandCount) % islandCount};
+            }
+            int[] result = new int[islandCount - 1];
+            for (int i = 0, k = 0; i < islandCount; i++) {
+                if (i != island) {
+                    result[k++] = i;
+                }
+            }
+            return result;
+        }
+    }
+
+    private final WeightedGraph graph;
+    private final List<GeneticAlgorithm> islands;
+    private final Topology topology;
+    private final int migrationInterval;
+    private final int migrantCount;
+
+    //Island i is seeded with seed + i, so a fixed seed gives the same results on every run
+    public IslandModel(WeightedGraph graph, int islandCount, int populationSize, double mutationRate, String depot,
+            long seed, Topology topology, int migrationInterval, int migrantCount) {
+        if (islandCount < 1 || migrationInterval < 1 || migrantCount < 0)
+            throw new IllegalArgumentException("Invalid island model settings");
+        this.graph = graph;
+        this.topology = topology;
+        this.migrationInterval = migrationInterval;
+        this.migrantCount = migrantCount;
+        this.islands = new ArrayList<>(islandCount);
+        for (int i = 0; i < islandCount; i++) {
+            GeneticAlgorithm island = new GeneticAlgorithm(graph, populationSize, mutationRate, depot, seed + i, null);
+            // Routes are merged across islands at the end, no need to extract them on every island
+            island.setExtractionInterval(0);
+            islands.add(island);
+        }
+    }
+
+    public List<GeneticAlgorithm> getIslands() {
+        return islands;
+    }
+
+    //Edits the shared graph once and lets every island repair its own population
+    //Returns how many routes were changed over all islands
+    public int updateEdge(String city1, String city2, int distance) {
+        int a = graph.getIndex(city1);
+        int b = graph.getIndex(city2);
+        int oldDistance = a == -1 || b == -1 ? 0 : graph.getEdgeWeight(a, b);
+        int changed = islands.get(0).updateEdge(city1, city2, distance);
+        for (int i = 1; i < islands.size(); i++) {
+            changed += islands.get(i).edgeChanged(city1, city2, oldDistance);
+        }
+        return changed;
+    }
+
+    //Runs numberOfGenerations generations on every island and returns the distinct routes of all of them
+    public List<Route> findBestRoutes(int numberOfGenerations) {
+        ExecutorService executor = Executors.newFixedThreadPool(islands.size());
+        try {
+            List<Route> candidates = new ArrayList<>();
+            int generations = 0;
+            while (generations < numberOfGenerations) {
+                int epoch = Math.min(migrationInterval, numberOfGenerations - generations);
+                List<Future<List<Route>>> results = new ArrayList<>(islands.size());
+                for (GeneticAlgorithm island : islands) {
+                    results.add(executor.submit(() -> island.findBestRoutes(epoch)));
+                }
+                candidates.clear();
+                for (Future<List<Route>> result : results) {
+                    candidates.addAll(result.get());
+                }
+                generations += epoch;
+                if (generations < numberOfGenerations)
+                    migrate();
+            }
+            return islands.get(0).selectDistinct(candidates);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while the islands were running", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("An island failed", e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    //All islands are between epochs here, so migrants are collected first and then delivered
+    private void migrate() {
+        List<List<Route>> emigrants = new ArrayList<>(islands.size());
+        for (GeneticAlgorithm island : islands) {
+            emigrants.add(island.getTopRoutes(migrantCount));
+        }
+        for (int i = 0; i < islands.size(); i++) {
+            List<Route> arriving = new ArrayList<>();
+            for (int source : topology.sources(i, islands.size())) {
+                arriving.addAll(emigrants.get(source));
+            }
+            islands.get(i).acceptMigrants(arriving);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+//One island of an IslandModel running in its own JVM, migrating through a FileMigrationChannel
+//Start one process per island with the same arguments except the island index:
+//  java IslandProcess <graph file|builtin> <depot> <island> <islands> <directory> <run id>
+//      <generations> [migrationInterval] [migrantCount] [ring|full] [seed]
+//The run id must be new for every run that uses the directory
+//Island 0 collects the final routes of all islands, writes output.txt and deletes the run's files
+public class IslandProcess {
+
+    //Other islands may still be initializing their population when the first epoch ends
+    private static final long TIMEOUT_MILLIS = 60_000;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 7) {
+            System.err.println("Usage: IslandProcess <graph file|builtin> <depot> <island> <islands> <directory>"
+                    + " <run id> <generations> [migrationInterval] [migrantCount] [ring|full] [seed]");
+            System.exit(2);
+        }
+        WeightedGraph graph = args[0].equals("builtin") ? new Graph() : GraphLoader.load(Paths.get(args[0]));
+        String depot = args[1];
+        int island = Integer.parseInt(args[2]);
+        int islandCount = Integer.parseInt(args[3]);
+        Path directory = Paths.get(args[4]);
+        String runId = args[5];
+        int numberOfGenerations = Integer.parseInt(args[6]);
+        int migrationInterval = args.length > 7 ? Integer.parseInt(args[7]) : 20;
+        int migrantCount = args.length > 8 ? Integer.parseInt(args[8]) : 5;
+        IslandModel.Topology topology = args.length > 9 && args[9].equals("full")
+                ? IslandModel.Topology.FULLY_CONNECTED : IslandModel.Topology.RING;
+        long seed = args.length > 10 ? Long.parseLong(args[10]) : 0;
+        if (island < 0 || island >= islandCount || migrationInterval < 1)
+            throw new IllegalArgumentException("Invalid island settings");
+
+        FileMigrationChannel channel = new FileMigrationChannel(directory, runId, TIMEOUT_MILLIS);
+        channel.clear(island);
+        GeneticAlgorithm gen = new GeneticAlgorithm(graph, 200, .05, depot, seed + island, null);
+        gen.setExtractionInterval(0);
+
+        List<Route> bestRoutes = new ArrayList<>();
+        int generations = 0;
+        int epoch = 0;
+        while (generations < numberOfGenerations) {
+            int length = Math.min(migrationInterval, numberOfGenerations - generations);
+            bestRoutes = gen.findBestRoutes(length);
+            generations += length;
+            if (generations < numberOfGenerations) {
+                channel.send(epoch, island, gen.getTopRoutes(migrantCount));
+                List<Route> arriving = new ArrayList<>();
+                for (int source : topology.sources(island, islandCount)) {
+                    arriving.addAll(channel.receive(epoch, source, graph));
+                }
+                gen.acceptMigrants(arriving);
+            }
+            epoch++;
+        }
+
+        // The epoch after the last one carries the final routes to island 0
+        if (island != 0) {
+            channel.send(epoch, island, bestRoutes);
+            return;
+        }
+        List<Route> candidates = new ArrayList<>(bestRoutes);
+        for (int source = 1; source < islandCount; source++) {
+            candidates.addAll(channel.receive(epoch, source, graph));
+        }
+        // Every other island has sent its final routes, so none of them reads the directory any more
+        channel.clearRun();
+        gen.printBestRoutes(gen.selectDistinct(candidates), graph, 10);
+    }
+}
@@ -0,0 +1,79 @@
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+//Emits one vrp.Generation JFR event per generation, to be recorded with for example
+//  java -XX:StartFlightRecording=filename=ga.jfr ...
+//When no recording has the event enabled the listener returns right away
+public class JfrMetricsExporter implements GenerationListener {
+
+    @Name("vrp.Generation")
+    @Label("GA Generation")
+    @Category("VRP")
+    static class GenerationEvent extends Event {
+        @Label("Generation")
+        int generation;
+        @Label("Best Fitness")
+        double bestFitness;
+        @Label("Mean Fitness")
+        double meanFitness;
+        @Label("Worst Fitness")
+        double worstFitness;
+        @Label("Diversity")
+        double diversity;
+        @Label("Distinct Routes")
+        int distinctRoutes;
+        @Label("Route Retries")
+        long routeRetries;
+        @Label("Selection")
+        @Timespan(Timespan.NANOSECONDS)
+        long selection;
+        @Label("Crossover")
+        @Timespan(Timespan.NANOSECONDS)
+        long crossover;
+        @Label("Mutation")
+        @Timespan(Timespan.NANOSECONDS)
+        long mutation;
+        @Label("Local Search")
+        @Timespan(Timespan.NANOSECONDS)
+        long localSearch;
+        @Label("Replacement")
+        @Timespan(Timespan.NANOSECONDS)
+        long replacement;
+        @Label("Extraction")
+        @Timespan(Timespan.NANOSECONDS)
+        long extraction;
+        @Label("Allocated")
+        @DataAmount
+        long allocated;
+    }
+
+    @Override
+    public void onGeneration(GenerationMetrics metrics) {
+        GenerationEvent event = new GenerationEvent();
+        if (!event.isEnabled())
+            return;
+        event.generation = metrics.getGeneration();
+        event.bestFitness = metrics.getBestFitness();
+        event.meanFitness = metrics.getMeanFitness();
+        event.worstFitness = metrics.getWorstFitness();
+        event.diversity = metrics.getDiversity();
+        event.distinctRoutes = metrics.getDistinctRoutes();
+        event.routeRetries = metrics.getRouteRetries();
+        event.selection = metrics.getNanos(GenerationMetrics.Phase.SELECTION);
+        event.crossover = metrics.getNanos(GenerationMetrics.Phase.CROSSOVER);
+        event.mutation = metrics.getNanos(GenerationMetrics.Phase.MUTATION);
+        event.localSearch = metrics.getNanos(GenerationMetrics.Phase.LOCAL_SEARCH);
+        event.replacement = metrics.getNanos(GenerationMetrics.Phase.REPLACEMENT);
+        event.extraction = metrics.getNanos(GenerationMetrics.Phase.EXTRACTION);
+        long allocated = 0;
+        for (GenerationMetrics.Phase phase : GenerationMetrics.Phase.values()) {
+            allocated += Math.max(0, metrics.getAllocatedBytes(phase));
+        }
+        event.allocated = allocated;
+        event.commit();
+    }
+}
@@ -0,0 +1,132 @@
+//Improvement moves for a single route, applied until none shortens it or the deadline passes
+//Every move keeps the depot, the number of hops and a simple path, and only shortens the distance,
+//so a valid route stays valid. Moves are evaluated in O(1) from the edges around the changed
+//positions and only applied when they improve, routes are short so all positions are tried:
+//  2-opt     reverses path[from..to]
+//  Or-opt    moves a segment of up to MAX_SEGMENT cities elsewhere in the path, possibly reversed
+//  relocate  swaps a city for one outside the path, taken from the neighbour list of its predecessor
+//Safe to run on different routes from several threads at once
+public class LocalSearch {
+
+    private static final int MAX_SEGMENT = 3;
+
+    private final WeightedGraph graph;
+    private final RouteValidator validator;
+
+    public LocalSearch(WeightedGraph graph, RouteValidator validator) {
+        this.graph = graph;
+        this.validator = validator;
+    }
+
+    //Returns true if the route was changed, deadline is a System.nanoTime() value
+    public boolean improve(Route route, long deadline) {
+        boolean changed = false;
+        boolean improved = true;
+        while (improved && System.nanoTime() < deadline) {
+            improved = twoOpt(route) || orOpt(route) || relocate(route);
+            changed |= improved;
+        }
+        return changed;
+    }
+
+    //First improvement, the depot at index 0 is never moved
+    private boolean twoOpt(Route route) {
+        int length = route.getPathIds().length;
+        for (int from = 1; from < length - 1; from++) {
+            for (int to = from + 1; to < length; to++) {
+                int delta = route.deltaReverse(from, to);
+                if (delta != Route.NO_EDGE && delta < 0)
+                    return route.reverseSegment(from, to);
+            }
+        }
+        return false;
+    }
+
+    //Moves path[start..end] between path[at] and path[at + 1], at lies outside start - 1..end
+    private boolean orOpt(Route route) {
+        int[] path = route.getPathIds();
+        int length = path.length;
+        for (int start = 1; start < length; start++) {
+            for (int end = start; end < Math.min(length, start + MAX_SEGMENT); end++) {
+                int before = path[start - 1];
+                int after = end + 1 < length ? path[end + 1] : -1;
+                // Closing the gap left by the segment
+                int removed = graph.getEdgeWeight(before, path[start]);
+                int closed = 0;
+                if (after != -1) {
+                    removed += graph.getEdgeWeight(path[end], after);
+                    closed = graph.getEdgeWeight(before, after);
+                    if (closed == 0)
+                        continue;
+                }
+                for (int at = 0; at < length; at++) {
+                    if (at >= start - 1 && at <= end)
+                        continue;
+                    int left = path[at];
+                    int right = at + 1 < length ? path[at + 1] : -1;
+                    int opened = right != -1 ? graph.getEdgeWeight(left, right) : 0;
+                    for (int reversed = 0; reversed < 2; reversed++) {
+                        int first = reversed == 0 ? path[start] : path[end];
+                        int last = reversed == 0 ? path[end] : path[start];
+                        int added = graph.getEdgeWeight(left, first);
+                        if (added == 0)
+                            continue;
+                        if (right != -1) {
+                            int weight = graph.getEdgeWeight(last, right);
+                            if (weight == 0)
+                                continue;
+                            added += weight;
+                        }
+                        if (closed + added - removed - opened < 0)
+                            return moveSegment(route, start, end, at, reversed == 1);
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    //Rewrites the range between the segment and its new place, O(distance moved)
+    private boolean moveSegment(Route route, int start, int end, int at, boolean reversed) {
+        int[] path = route.getPathIds();
+        int segmentLength = end - start + 1;
+        int[] segment = new int[segmentLength];
+        for (int i = 0; i < segmentLength; i++) {
+            segment[i] = path[reversed ? end - i : start + i];
+        }
+        if (at < start) {
+            int[] range = new int[end - at];
+            System.arraycopy(segment, 0, range, 0, segmentLength);
+            System.arraycopy(path, at + 1, range, segmentLength, start - at - 1);
+            return route.replaceSegment(at + 1, end, range);
+        }
+        int[] range = new int[at - start + 1];
+        System.arraycopy(path, end + 1, range, 0, at - end);
+        System.arraycopy(segment, 0, range, at - end, segmentLength);
+        return route.replaceSegment(start, at, range);
+    }
+
+    //Best unvisited neighbour of path[index - 1] to replace path[index]
+    private boolean relocate(Route route) {
+        int[] path = route.getPathIds();
+        RouteValidator.PathMarks inPath = validator.mark(path);
+        for (int index = 1; index < path.length; index++) {
+            int previous = path[index - 1];
+            int bestCity = -1;
+            int bestDelta = 0;
+            for (int k = 0; k < graph.getDegree(previous); k++) {
+                int city = graph.getNeighbor(previous, k);
+                if (inPath.contains(city))
+                    continue;
+                int delta = route.deltaReplaceCity(index, city);
+                if (delta != Route.NO_EDGE && delta < bestDelta) {
+                    bestDelta = delta;
+                    bestCity = city;
+                }
+            }
+            if (bestCity != -1)
+                return route.replaceCity(index, bestCity);
+        }
+        return false;
+    }
+}
@@ -0,0 +1,89 @@
+import java.util.Arrays;
+
+//Count per long key without boxing, for path hashes: open addressing with linear probing
+//Slots are generation-stamped as in RouteValidator.PathMarks, so clear() is O(1) and the table
+//is reused from one generation to the next. Keys are Zobrist hashes, already well mixed, so
+//their low bits pick the slot directly
+final class LongCounts {
+
+    private long[] keys;
+    private int[] counts;
+    private int[] stamps;
+    private int generation = 1;
+    private int size;
+
+    LongCounts(int expectedKeys) {
+        int capacity = Integer.highestOneBit(Math.max(8, expectedKeys * 2 - 1)) << 1;
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        counts = new int[capacity];
+        stamps = new int[capacity];
+    }
+
+    //Empties the table, O(1)
+    void clear() {
+        size = 0;
+        generation++;
+        if (generation == 0) {
+            // Wrapped around, old stamps could match again
+            Arrays.fill(stamps, 0);
+            generation = 1;
+        }
+    }
+
+    //Number of keys added since the last clear, including those counted back down to 0
+    int size() {
+        return size;
+    }
+
+    int get(long key) {
+        int mask = keys.length - 1;
+        for (int slot = (int) key & mask; stamps[slot] == generation; slot = (slot + 1) & mask) {
+            if (keys[slot] == key)
+                return counts[slot];
+        }
+        return 0;
+    }
+
+    //Adds delta to the count of key and returns the new count
+    int add(long key, int delta) {
+        int mask = keys.length - 1;
+        int slot = (int) key & mask;
+        while (stamps[slot] == generation) {
+            if (keys[slot] == key)
+                return counts[slot] += delta;
+            slot = (slot + 1) & mask;
+        }
+        stamps[slot] = generation;
+        keys[slot] = key;
+        counts[slot] = delta;
+        // Load factor at most 1/2, probes stay short
+        if (++size * 2 > keys.length)
+            grow();
+        return delta;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldCounts = counts;
+        int[] oldStamps = stamps;
+        int oldGeneration = generation;
+        allocate(oldKeys.length * 2);
+        generation = 1;
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldStamps[i] != oldGeneration)
+                continue;
+            int slot = (int) oldKeys[i] & mask;
+            while (stamps[slot] == generation) {
+                slot = (slot + 1) & mask;
+            }
+            stamps[slot] = generation;
+            keys[slot] = oldKeys[i];
+            counts[slot] = oldCounts[i];
+        }
+    }
+}
@@ -0,0 +1,171 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+//CSR graph read straight from a memory-mapped binary file written by GraphLoader.writeBinary
+//Nothing is copied on open, so start-up does not depend on the graph size and JVMs that map
+//the same file share the operating system's page cache. The name -> index map is only built
+//the first time a city is looked up by name. Edits go to an EdgeOverlay in memory, the file
+//is never written
+public class MappedCsrGraph implements WeightedGraph {
+
+    static final int MAGIC = 0x56525047; // "VRPG"
+    static final int VERSION = 1;
+    static final int HEADER_INTS = 5; // magic, version, vertex count, entry count, name bytes
+
+    private final int vertexCount;
+    private final IntBuffer offsets;
+    private final IntBuffer targets;
+    private final IntBuffer weights;
+    private final IntBuffer nameOffsets;
+    private final ByteBuffer names;
+    private volatile String[] vertices;
+    private volatile Map<String, Integer> vertexIndex;
+    private final EdgeOverlay edits;
+
+    private MappedCsrGraph(ByteBuffer file) throws IOException {
+        file.order(ByteOrder.LITTLE_ENDIAN);
+        if (file.limit() < HEADER_INTS * 4 || file.getInt(0) != MAGIC) {
+            throw new IOException("Not a graph file");
+        }
+        if (file.getInt(4) != VERSION) {
+            throw new IOException("Unsupported graph file version " + file.getInt(4));
+        }
+        this.vertexCount = file.getInt(8);
+        int entryCount = file.getInt(12);
+        int nameBytes = file.getInt(16);
+        long expected = 4L * (HEADER_INTS + (vertexCount + 1) * 2L + entryCount * 2L) + nameBytes;
+        if (vertexCount < 0 || entryCount < 0 || nameBytes < 0 || file.limit() != expected) {
+            throw new IOException("Truncated or corrupt graph file");
+        }
+        int position = HEADER_INTS * 4;
+        this.offsets = ints(file, position, vertexCount + 1);
+        position += (vertexCount + 1) * 4;
+        this.targets = ints(file, position, entryCount);
+        position += entryCount * 4;
+        this.weights = ints(file, position, entryCount);
+        position += entryCount * 4;
+        this.nameOffsets = ints(file, position, vertexCount + 1);
+        position += (vertexCount + 1) * 4;
+        this.names = file.slice(position, nameBytes);
+        this.edits = new EdgeOverlay(vertexCount);
+    }
+
+    private static IntBuffer ints(ByteBuffer file, int position, int count) {
+        return file.slice(position, count * 4).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+    }
+
+    //Maps the whole file read-only, a single mapping is limited to 2 GB
+    public static MappedCsrGraph open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Graph file larger than 2 GB: " + path);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new MappedCsrGraph(buffer); // The mapping stays valid after the channel is closed
+        }
+    }
+
+    @Override
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    @Override
+    public String[] getVertices() {
+        String[] result = vertices;
+        if (result == null) {
+            result = new String[vertexCount];
+            for (int i = 0; i < vertexCount; i++) {
+                result[i] = getVertexName(i);
+            }
+            vertices = result;
+        }
+        return result;
+    }
+
+    @Override
+    public int getIndex(String vertex) {
+        Map<String, Integer> index = vertexIndex;
+        if (index == null) {
+            String[] all = getVertices();
+            index = new HashMap<>(all.length * 2);
+            for (int i = 0; i < all.length; i++) {
+                index.put(all[i], i);
+            }
+            vertexIndex = index;
+        }
+        Integer result = index.get(vertex);
+        return result == null ? -1 : result;
+    }
+
+    @Override
+    public String getVertexName(int index) {
+        String[] cached = vertices;
+        if (cached != null) {
+            return cached[index];
+        }
+        int start = nameOffsets.get(index);
+        int length = nameOffsets.get(index + 1) - start;
+        byte[] bytes = new byte[length];
+        names.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    //Binary search in the row of the first city, O(log degree)
+    @Override
+    public int getEdgeWeight(int from, int to) {
+        if (edits.isEdited(from))
+            return edits.getEdgeWeight(from, to);
+        int low = offsets.get(from);
+        int high = offsets.get(from + 1) - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int target = targets.get(mid);
+            if (target < to) {
+                low = mid + 1;
+            } else if (target > to) {
+                high = mid - 1;
+            } else {
+                return weights.get(mid);
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public int getDegree(int vertex) {
+        if (edits.isEdited(vertex))
+            return edits.getDegree(vertex);
+        return offsets.get(vertex + 1) - offsets.get(vertex);
+    }
+
+    @Override
+    public int getNeighbor(int vertex, int k) {
+        if (edits.isEdited(vertex))
+            return edits.getNeighbor(vertex, k);
+        return targets.get(offsets.get(vertex) + k);
+    }
+
+    @Override
+    public int getNeighborWeight(int vertex, int k) {
+        if (edits.isEdited(vertex))
+            return edits.getNeighborWeight(vertex, k);
+        return weights.get(offsets.get(vertex) + k);
+    }
+
+    @Override
+    public void setEdgeWeight(int from, int to, int distance) {
+        if (from == to)
+            throw new IllegalArgumentException("A road needs two different cities");
+        edits.setEdgeWeight(this, from, to, distance);
+    }
+}
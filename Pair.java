@@ -1,9 +1,9 @@
-class Pair<T, U> {
-    public final T first;
-    public final U second;
-
-    public Pair(T first, U second) {
-        this.first = first;
-        this.second = second;
-    }
+class Pair<T, U> {
+    public final T first;
+    public final U second;
+
+    public Pair(T first, U second) {
+        this.first = first;
+        this.second = second;
+    }
 }
\ No newline at end of file
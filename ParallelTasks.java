@@ -0,0 +1,106 @@
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.random.RandomGenerator;
+import java.util.stream.IntStream;
+
+//Indexed tasks for the parallel generation mode of GeneticAlgorithm and FleetGeneticAlgorithm
+//Each seeded task gets its own random stream. The seeds are drawn on the calling thread, one
+//per task index, so with a fixed seed the results are the same for any pool size. The streams
+//are per-thread SplitMix64 generators reseeded for every task, so a generation allocates no
+//random generators
+class ParallelTasks {
+
+    //A task of runSeeded, rng is only valid during the call
+    interface SeededTask {
+        void run(int index, RandomGenerator rng);
+    }
+
+    //SplitMix64, the generator behind SplittableRandom, with a seed that can be set again
+    private static final class TaskRandom implements RandomGenerator {
+        private long state;
+
+        @Override
+        public long nextLong() {
+            long z = state += 0x9E3779B97F4A7C15L;
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            return z ^ (z >>> 31);
+        }
+    }
+
+    private static final ThreadLocal<TaskRandom> RANDOM = ThreadLocal.withInitial(TaskRandom::new);
+
+    //Source of the per-task seeds
+    private final SplittableRandom streams;
+    //Seeds of the current runSeeded call, reused
+    private long[] seeds = new long[0];
+    //null means everything runs on the calling thread
+    private ForkJoinPool pool;
+    //Receives the allocations of tasks run on pool threads, null when nothing is measured
+    private PhaseRecorder recorder;
+
+    ParallelTasks(long seed, ForkJoinPool pool) {
+        this.streams = new SplittableRandom(seed);
+        this.pool = pool;
+    }
+
+    void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    //Set while a GeneticAlgorithm run is instrumented, null stops the counting
+    void setRecorder(PhaseRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    //Runs task(0..count-1), in the pool if there is one
+    void run(int count, IntConsumer task) {
+        if (pool == null) {
+            for (int i = 0; i < count; i++) {
+                task.accept(i);
+            }
+        } else {
+            IntConsumer body = recorder == null || !recorder.isMeasuringAllocations() ? task
+                    : counted(task, recorder, Thread.currentThread());
+            pool.submit(() -> IntStream.range(0, count).parallel().forEach(body)).join();
+        }
+    }
+
+    //Counts the allocations of each task that runs on a pool thread
+    //The caller may run some tasks itself while it waits, those are already in its own count
+    private static IntConsumer counted(IntConsumer task, PhaseRecorder recorder, Thread caller) {
+        return i -> {
+            if (Thread.currentThread() == caller) {
+                task.accept(i);
+                return;
+            }
+            long before = PhaseRecorder.currentThreadAllocated();
+            try {
+                task.accept(i);
+            } finally {
+                recorder.addWorkerBytes(PhaseRecorder.currentThreadAllocated() - before);
+            }
+        };
+    }
+
+    //Runs task(0..count-1) like run, task i with a random stream seeded by the i-th seed
+    void runSeeded(int count, SeededTask task) {
+        if (seeds.length < count)
+            seeds = new long[Math.max(count, seeds.length * 2)];
+        long[] taskSeeds = seeds;
+        for (int i = 0; i < count; i++) {
+            taskSeeds[i] = streams.nextLong();
+        }
+        run(count, i -> {
+            TaskRandom rng = RANDOM.get();
+            rng.state = taskSeeds[i];
+            task.run(i, rng);
+        });
+    }
+
+    //A stream for work done on the calling thread
+    SplittableRandom split() {
+        return streams.split();
+    }
+}
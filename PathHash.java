@@ -0,0 +1,23 @@
+//Zobrist-style hash of a path: the XOR of one pseudo-random key per (city, position)
+//Keys are computed with the SplitMix64 finalizer instead of stored in a table, so the hash needs
+//no memory per city. Changing the city at one position updates the hash in O(1)
+public final class PathHash {
+
+    private PathHash() {
+    }
+
+    public static long key(int city, int position) {
+        long z = ((long) city << 32 | position) + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    public static long of(int[] path) {
+        long hash = 0;
+        for (int i = 0; i < path.length; i++) {
+            hash ^= key(path[i], i);
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,33 @@
+import java.util.Arrays;
+
+//Immutable result of a path generation: the cities visited, the distance and the number of hops
+public final class PathResult {
+
+    public static final PathResult NONE = new PathResult(new int[0], -1, -1);
+
+    private final int[] path;
+    private final int distance;
+    private final int hops;
+
+    public PathResult(int[] path, int distance, int hops) {
+        this.path = path;
+        this.distance = distance;
+        this.hops = hops;
+    }
+
+    public int[] getPath() {
+        return Arrays.copyOf(path, path.length); // Return a copy, the result stays immutable
+    }
+
+    public int getDistance() {
+        return distance;
+    }
+
+    public int getHops() {
+        return hops;
+    }
+
+    public boolean isFound() {
+        return distance != -1;
+    }
+}
@@ -0,0 +1,76 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+//Time and allocations between calls to mark(), used by GeneticAlgorithm while listeners are registered
+//Allocations need com.sun.management.ThreadMXBean. They are those of the thread that owns the
+//recorder plus what ParallelTasks counted for the tasks it ran in the pool, so other work in
+//the JVM, another GeneticAlgorithm included, is never charged to this one
+class PhaseRecorder {
+
+    private static final com.sun.management.ThreadMXBean THREADS = allocationBean();
+
+    private final long[] nanos = new long[GenerationMetrics.Phase.values().length];
+    private final long[] allocatedBytes = new long[nanos.length];
+    private long lastNanos;
+    private long lastBytes;
+    //Allocated by tasks on pool threads, added when each task ends
+    private final LongAdder workerBytes = new LongAdder();
+
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) bean;
+            if (allocations.isThreadAllocatedMemorySupported() && allocations.isThreadAllocatedMemoryEnabled())
+                return allocations;
+        }
+        return null;
+    }
+
+    //Starts a generation
+    void start() {
+        Arrays.fill(nanos, 0);
+        Arrays.fill(allocatedBytes, THREADS == null ? -1 : 0);
+        lastBytes = allocated();
+        lastNanos = System.nanoTime();
+    }
+
+    //Charges everything since the previous mark to phase
+    void mark(GenerationMetrics.Phase phase) {
+        long now = System.nanoTime();
+        nanos[phase.ordinal()] += now - lastNanos;
+        if (THREADS != null) {
+            long bytes = allocated();
+            allocatedBytes[phase.ordinal()] += Math.max(0, bytes - lastBytes);
+            lastBytes = bytes;
+        }
+        lastNanos = System.nanoTime();
+    }
+
+    long[] getNanos() {
+        return nanos;
+    }
+
+    long[] getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    boolean isMeasuringAllocations() {
+        return THREADS != null;
+    }
+
+    //Bytes allocated so far by the current thread, 0 if they cannot be measured
+    static long currentThreadAllocated() {
+        return THREADS == null ? 0 : THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    //Charges bytes allocated by a task on another thread to the current phase
+    void addWorkerBytes(long bytes) {
+        workerBytes.add(bytes);
+    }
+
+    private long allocated() {
+        return currentThreadAllocated() + workerBytes.sum();
+    }
+}
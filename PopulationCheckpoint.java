@@ -0,0 +1,182 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+//A saved population: the generation it was taken at and its routes as city names
+//Binary format, big-endian:
+//  int MAGIC, int VERSION, int generation, int nameCount, nameCount x (int length, UTF-8 bytes),
+//  int routeCount, routeCount x (int length, length x int index into the names)
+//Each city name is stored once and routes refer to it, so a checkpoint can be loaded on a graph
+//whose vertices were renumbered or edited
+public class PopulationCheckpoint {
+
+    private static final int MAGIC = 0x56525043; // "VRPC"
+    private static final int VERSION = 1;
+
+    private final int generation;
+    private final List<List<String>> routes;
+
+    private PopulationCheckpoint(int generation, List<List<String>> routes) {
+        this.generation = generation;
+        this.routes = routes;
+    }
+
+    public int getGeneration() {
+        return generation;
+    }
+
+    public List<List<String>> getRoutes() {
+        return routes;
+    }
+
+    public static PopulationCheckpoint read(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC)
+                throw new IOException(path + ": not a population checkpoint");
+            int version = in.readInt();
+            if (version != VERSION)
+                throw new IOException(path + ": unsupported checkpoint version " + version);
+            int generation = in.readInt();
+            String[] names = new String[in.readInt()];
+            for (int i = 0; i < names.length; i++) {
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                names[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+            int routeCount = in.readInt();
+            List<List<String>> routes = new ArrayList<>(routeCount);
+            for (int r = 0; r < routeCount; r++) {
+                int length = in.readInt();
+                List<String> route = new ArrayList<>(length);
+                for (int k = 0; k < length; k++) {
+                    int index = in.readInt();
+                    if (index < 0 || index >= names.length)
+                        throw new IOException(path + ": city index " + index + " out of range");
+                    route.add(names[index]);
+                }
+                routes.add(route);
+            }
+            return new PopulationCheckpoint(generation, routes);
+        }
+    }
+
+    //Written to a temporary file and then moved, an interrupted write never replaces a good checkpoint
+    public static void write(Path path, int generation, Route[] routes, WeightedGraph graph) throws IOException {
+        Map<Integer, Integer> nameIndex = new HashMap<>();
+        List<String> names = new ArrayList<>();
+        for (Route route : routes) {
+            for (int city : route.getPathIds()) {
+                if (nameIndex.putIfAbsent(city, names.size()) == null)
+                    names.add(graph.getVertexName(city));
+            }
+        }
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(generation);
+            out.writeInt(names.size());
+            for (String name : names) {
+                byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+            out.writeInt(routes.length);
+            for (Route route : routes) {
+                int[] cities = route.getPathIds();
+                out.writeInt(cities.length);
+                for (int city : cities) {
+                    out.writeInt(nameIndex.get(city));
+                }
+            }
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    //Writes checkpoints on its own thread, the GA thread only hands over the route references
+    //Only the latest population is kept: a checkpoint submitted while another is waiting replaces it
+    public static final class Writer implements Closeable {
+
+        private final Path path;
+        private final WeightedGraph graph;
+        private final ExecutorService executor = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "checkpoint-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        private final AtomicReference<Job> pending = new AtomicReference<>();
+        private Future<?> last;
+
+        public Writer(Path path, WeightedGraph graph) {
+            this.path = path;
+            this.graph = graph;
+        }
+
+        //routes must not be changed afterwards, GeneticAlgorithm never changes a route once it is
+        //in the population
+        public void submit(int generation, Route[] routes) {
+            if (pending.getAndSet(new Job(generation, routes)) == null) {
+                last = executor.submit(() -> {
+                    Job job = pending.getAndSet(null);
+                    try {
+                        write(path, job.generation, job.routes, graph);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        }
+
+        //Waits for the submitted checkpoints, and reports a failed write
+        public void await() throws IOException {
+            if (last == null)
+                return;
+            try {
+                last.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while writing " + path, e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof UncheckedIOException)
+                    throw ((UncheckedIOException) e.getCause()).getCause();
+                throw new IOException("Writing " + path + " failed", e.getCause());
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                await();
+            } finally {
+                executor.shutdown();
+            }
+        }
+    }
+
+    private static final class Job {
+        private final int generation;
+        private final Route[] routes;
+
+        private Job(int generation, Route[] routes) {
+            this.generation = generation;
+            this.routes = routes;
+        }
+    }
+}
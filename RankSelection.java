@@ -0,0 +1,98 @@
+import java.util.random.RandomGenerator;
+
+//Linear rank selection, the worst individual has weight 1 and the best has weight n
+//Sorting costs O(n log n) per generation, each selection is O(1)
+//The indices are sorted as primitives together with a copy of their fitness, so prepare()
+//allocates nothing once the arrays have grown to the population size
+public class RankSelection implements SelectionStrategy {
+
+    private static final int INSERTION_SORT_LIMIT = 16;
+
+    private int[] order = new int[0];
+    private double[] keys = new double[0];
+    private int count;
+
+    @Override
+    public void prepare(double[] fitness, int count) {
+        if (order.length < count) {
+            order = new int[count];
+            keys = new double[count];
+        }
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+            keys[i] = fitness[i];
+        }
+        // Ascending, so order[r - 1] is the individual with rank r
+        sort(0, count - 1);
+        this.count = count;
+    }
+
+    @Override
+    public int select(RandomGenerator rng) {
+        // Ranks 1..r have cumulative weight r(r+1)/2, invert it for a uniform value
+        double total = (double) count * (count + 1) / 2;
+        double randomValue = rng.nextDouble() * total;
+        int rank = (int) Math.ceil((Math.sqrt(8 * randomValue + 1) - 1) / 2);
+        rank = Math.max(1, Math.min(count, rank));
+        return order[rank - 1];
+    }
+
+    //Quicksort of keys[left..right] moving order along, recursing into the smaller half only
+    private void sort(int left, int right) {
+        while (right - left >= INSERTION_SORT_LIMIT) {
+            double pivot = medianOfThree(left, (left + right) >>> 1, right);
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (Double.compare(keys[i], pivot) < 0)
+                    i++;
+                while (Double.compare(keys[j], pivot) > 0)
+                    j--;
+                if (i <= j)
+                    swap(i++, j--);
+            }
+            if (j - left < right - i) {
+                sort(left, j);
+                left = i;
+            } else {
+                sort(i, right);
+                right = j;
+            }
+        }
+        for (int i = left + 1; i <= right; i++) {
+            double key = keys[i];
+            int index = order[i];
+            int j = i - 1;
+            while (j >= left && Double.compare(keys[j], key) > 0) {
+                keys[j + 1] = keys[j];
+                order[j + 1] = order[j];
+                j--;
+            }
+            keys[j + 1] = key;
+            order[j + 1] = index;
+        }
+    }
+
+    private double medianOfThree(int a, int b, int c) {
+        double x = keys[a];
+        double y = keys[b];
+        double z = keys[c];
+        if (Double.compare(x, y) > 0) {
+            double t = x;
+            x = y;
+            y = t;
+        }
+        if (Double.compare(y, z) > 0)
+            y = z;
+        return Double.compare(x, y) > 0 ? x : y;
+    }
+
+    private void swap(int i, int j) {
+        double key = keys[i];
+        keys[i] = keys[j];
+        keys[j] = key;
+        int index = order[i];
+        order[i] = order[j];
+        order[j] = index;
+    }
+}
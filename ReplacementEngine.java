@@ -0,0 +1,207 @@
+import java.util.Arrays;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+//Builds the next population from the current one and the offspring
+//  ELITIST   keeps the fittest eliteFraction of the population and fills up with offspring
+//  CROWDING  each offspring is compared with crowdingFactor random members of the next population
+//            and replaces the most similar one (most cities in common) if it is fitter
+//  SHARING   keeps the fittest routes of population and offspring together by shared fitness,
+//            the fitness divided by the number of candidates that end in the same city
+//Duplicates are found by path hash in O(1) per route, with 64-bit hashes a collision is negligible
+//Hashes and niche sizes are counted in primitive tables reused between generations, nothing is boxed
+//The elite and the SHARING survivors are found with quickselect in O(P) instead of a full sort
+//Slots left empty because of duplicates are filled with new random routes by the GeneticAlgorithm
+public class ReplacementEngine {
+
+    public enum Mode {
+        ELITIST, CROWDING, SHARING
+    }
+
+    private Mode mode = Mode.ELITIST;
+    private double eliteFraction = .3;
+    private int crowdingFactor = 3;
+    private boolean removeDuplicates = true;
+    //Reused between generations
+    private Route[] candidates = new Route[0];
+    private double[] keys = new double[0];
+    private final LongCounts seen = new LongCounts(256);
+    private final LongCounts copies = new LongCounts(256);
+    //Candidates per end city, only the cities in nicheCities are non-zero between calls
+    private int[] nicheSizes = new int[0];
+    private int[] nicheCities = new int[0];
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    public void setEliteFraction(double eliteFraction) {
+        if (eliteFraction < 0 || eliteFraction > 1)
+            throw new IllegalArgumentException("Elite fraction must be between 0 and 1");
+        this.eliteFraction = eliteFraction;
+    }
+
+    public void setCrowdingFactor(int crowdingFactor) {
+        if (crowdingFactor < 1)
+            throw new IllegalArgumentException("Crowding factor must be positive");
+        this.crowdingFactor = crowdingFactor;
+    }
+
+    public void setRemoveDuplicates(boolean removeDuplicates) {
+        this.removeDuplicates = removeDuplicates;
+    }
+
+    //Fills next with at most populationSize routes, validator only lends its per-thread path marks
+    public void replace(List<Route> population, List<Route> offspring, List<Route> next, int populationSize,
+            RandomGenerator rng, RouteValidator validator) {
+        next.clear();
+        seen.clear();
+        if (mode == Mode.CROWDING) {
+            crowding(population, offspring, next, populationSize, rng, validator);
+        } else if (mode == Mode.SHARING) {
+            sharing(population, offspring, next, populationSize, rng);
+        } else {
+            elitist(population, offspring, next, populationSize, rng);
+        }
+    }
+
+    private void elitist(List<Route> population, List<Route> offspring, List<Route> next, int populationSize,
+            RandomGenerator rng) {
+        int count = load(population, 0);
+        for (int i = 0; i < count; i++) {
+            keys[i] = candidates[i].getFitness();
+        }
+        int numberOfElites = Math.min(count, (int) (populationSize * eliteFraction));
+        selectTop(count, numberOfElites, rng);
+        for (int i = 0; i < numberOfElites; i++) {
+            offer(candidates[i], next);
+        }
+        for (int i = 0; i < offspring.size() && next.size() < populationSize; i++) {
+            offer(offspring.get(i), next);
+        }
+        Arrays.fill(candidates, 0, count, null);
+    }
+
+    private void sharing(List<Route> population, List<Route> offspring, List<Route> next, int populationSize,
+            RandomGenerator rng) {
+        int count = load(population, 0);
+        count = load(offspring, count);
+        // Duplicates are dropped before the niches are counted, so copies do not crowd their own niche
+        int unique = 0;
+        for (int i = 0; i < count; i++) {
+            if (!removeDuplicates || seen.add(candidates[i].getHash(), 1) == 1)
+                candidates[unique++] = candidates[i];
+        }
+        if (nicheCities.length < unique)
+            nicheCities = new int[unique];
+        int niches = 0;
+        for (int i = 0; i < unique; i++) {
+            int city = candidates[i].getEndCity();
+            if (city >= nicheSizes.length)
+                nicheSizes = Arrays.copyOf(nicheSizes, Math.max(city + 1, nicheSizes.length * 2));
+            if (nicheSizes[city]++ == 0)
+                nicheCities[niches++] = city;
+        }
+        for (int i = 0; i < unique; i++) {
+            keys[i] = candidates[i].getFitness() / nicheSizes[candidates[i].getEndCity()];
+        }
+        for (int i = 0; i < niches; i++) {
+            nicheSizes[nicheCities[i]] = 0;
+        }
+        int survivors = Math.min(unique, populationSize);
+        selectTop(unique, survivors, rng);
+        for (int i = 0; i < survivors; i++) {
+            next.add(candidates[i]);
+        }
+        Arrays.fill(candidates, 0, count, null);
+    }
+
+    private void crowding(List<Route> population, List<Route> offspring, List<Route> next, int populationSize,
+            RandomGenerator rng, RouteValidator validator) {
+        copies.clear();
+        for (int i = 0; i < population.size() && next.size() < populationSize; i++) {
+            next.add(population.get(i));
+            copies.add(population.get(i).getHash(), 1);
+        }
+        if (next.isEmpty())
+            return;
+        for (Route child : offspring) {
+            long hash = child.getHash();
+            if (removeDuplicates && copies.get(hash) > 0)
+                continue;
+            RouteValidator.PathMarks childCities = validator.mark(child.getPathIds());
+            int closest = -1;
+            int mostShared = -1;
+            for (int k = 0; k < crowdingFactor; k++) {
+                int index = rng.nextInt(next.size());
+                int shared = 0;
+                for (int city : next.get(index).getPathIds()) {
+                    if (childCities.contains(city))
+                        shared++;
+                }
+                if (shared > mostShared) {
+                    mostShared = shared;
+                    closest = index;
+                }
+            }
+            Route replaced = next.get(closest);
+            if (child.getFitness() > replaced.getFitness()) {
+                next.set(closest, child);
+                copies.add(replaced.getHash(), -1);
+                copies.add(hash, 1);
+            }
+        }
+        // Duplicates already in the population are left for the next generations to replace
+    }
+
+    //Adds the route unless an equal path is already in next
+    private void offer(Route route, List<Route> next) {
+        if (!removeDuplicates || seen.add(route.getHash(), 1) == 1)
+            next.add(route);
+    }
+
+    private int load(List<Route> routes, int from) {
+        int count = from + routes.size();
+        if (candidates.length < count) {
+            candidates = Arrays.copyOf(candidates, count);
+            keys = new double[count];
+        }
+        for (int i = 0; i < routes.size(); i++) {
+            candidates[from + i] = routes.get(i);
+        }
+        return count;
+    }
+
+    //Moves the k candidates with the largest keys to the front, in no particular order, O(count) expected
+    private void selectTop(int count, int k, RandomGenerator rng) {
+        int left = 0;
+        int right = count - 1;
+        while (k > 0 && k < count && left < right) {
+            int pivotIndex = left + rng.nextInt(right - left + 1);
+            double pivot = keys[pivotIndex];
+            swap(pivotIndex, right);
+            int store = left;
+            for (int i = left; i < right; i++) {
+                if (keys[i] > pivot)
+                    swap(i, store++);
+            }
+            swap(store, right);
+            if (store == k - 1 || store == k) {
+                return;
+            } else if (store < k) {
+                left = store + 1;
+            } else {
+                right = store - 1;
+            }
+        }
+    }
+
+    private void swap(int i, int j) {
+        Route route = candidates[i];
+        candidates[i] = candidates[j];
+        candidates[j] = route;
+        double key = keys[i];
+        keys[i] = keys[j];
+        keys[j] = key;
+    }
+}
@@ -0,0 +1,38 @@
+import java.util.random.RandomGenerator;
+
+//Fitness proportional selection, prefix sums built in O(n) and sampled with a binary search in O(log n)
+public class RouletteWheelSelection implements SelectionStrategy {
+
+    private double[] cumulative = new double[0];
+    private int count;
+
+    @Override
+    public void prepare(double[] fitness, int count) {
+        if (cumulative.length < count) {
+            cumulative = new double[count];
+        }
+        double runningSum = 0;
+        for (int i = 0; i < count; i++) {
+            runningSum += fitness[i];
+            cumulative[i] = runningSum;
+        }
+        this.count = count;
+    }
+
+    @Override
+    public int select(RandomGenerator rng) {
+        double randomValue = rng.nextDouble() * cumulative[count - 1];
+        // First index whose running sum reaches the random value
+        int low = 0;
+        int high = count - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cumulative[mid] >= randomValue) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+}
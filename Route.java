@@ -1,102 +1,322 @@
-import java.util.Arrays;
-import java.util.List;
-
-public class Route {
-
-    private final double MAX_WORKING_TIME = 8.0 * 60.0; // 8 hours in minutes
-
-    private Graph graph;
-    private Pair<String, String> cities;
-    private int totalDistance;
-    private int routeLenght;
-    private double totalTime;
-    private List<String> path;
-
-    public Route(Pair<String, String> cities, Graph graph) {
-        this.graph = graph;
-        Pair<Integer, Integer> aux = this.graph.getDistance(cities.first, cities.second);
-        while (calculateTotalTime(aux.first) > MAX_WORKING_TIME && aux.second > graph.getVertices().length / 3) {
-            aux = this.graph.getDistance(cities.first, cities.second);
-        }
-        this.totalDistance = aux.first;
-        this.routeLenght = aux.second;
-        this.cities = cities;
-        this.totalTime = calculateTotalTime(aux.first);
-        this.path = this.graph.getCurrentPath();
-    }
-
-    public Route(List<String> newPath, Graph graph) {
-        this.graph = graph;
-        this.path = newPath;
-        this.cities = new Pair<String, String>(newPath.get(0), newPath.get(newPath.size() - 1));
-        calculateTotalDistanceAndLength();
-        this.totalTime = calculateTotalTime(this.totalDistance);
-    }
-
-    // Setters and getters
-    public double getMAX_WORKING_TIME() {
-        return MAX_WORKING_TIME;
-    }
-
-    public List<String> getPath() {
-        return path;
-    }
-
-    public void setPath(List<String> Path) {
-        this.path = Path;
-    }
-
-    public int getRouteLenght() {
-        return routeLenght;
-    }
-
-    public int getTotalDistance() {
-        return totalDistance;
-    }
-
-    public Pair<String, String> getCities() {
-        return cities;
-    }
-
-    public void setCities(String City1, String City2) {
-        cities = new Pair<String, String>(City1, City2);
-    }
-
-    public double getTotalTime() {
-        return totalTime;
-    }
-
-    private double calculateTotalTime(int dist) {
-        if (dist == -1) {
-            return -1;
-        }
-        return (double) (((double) dist / 80 * 60) + (double) (routeLenght * 20));
-    }
-
-    //Fitness
-    public double getFitness() {
-        return 1.0 / totalTime;
-    }
-
-    //To calculate total distance and length of it, if 2nd constructor is used (with path input)
-    private void calculateTotalDistanceAndLength() {
-        this.totalDistance = 0;
-        this.routeLenght = 0;
-
-        for (int i = 0; i < path.size() - 1; i++) {
-            String city1 = path.get(i);
-            String city2 = path.get(i + 1);
-
-            int index1 = Arrays.asList(graph.getVertices()).indexOf(city1);
-            int index2 = Arrays.asList(graph.getVertices()).indexOf(city2);
-
-            if (index1 == -1 || index2 == -1 || graph.getAdjacencyMatrix()[index1][index2] == 0) {
-                throw new IllegalArgumentException("Invalid path: No direct path between " + city1 + " and " + city2);
-            }
-
-            this.totalDistance += graph.getAdjacencyMatrix()[index1][index2];
-            this.routeLenght++;
-        }
-    }
-
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+
+public class Route {
+
+    public static final double MAX_WORKING_TIME = 8.0 * 60.0; // 8 hours in minutes
+    //Returned by the delta methods when the change would use an edge that does not exist
+    public static final int NO_EDGE = Integer.MIN_VALUE;
+
+    private WeightedGraph graph;
+    private int startCity;
+    private int endCity;
+    private int totalDistance;
+    private int routeLenght;
+    private double totalTime;
+    private int[] path;
+    //PathHash of the path, 0 until first asked for or after a change that shifts positions
+    private long hash;
+
+    public Route(Pair<String, String> cities, WeightedGraph graph) {
+        this(graph.getIndex(cities.first), graph.getIndex(cities.second), graph, ThreadLocalRandom.current());
+    }
+
+    public Route(int startCity, int endCity, WeightedGraph graph, RandomGenerator rng) {
+        this.graph = graph;
+        PathResult aux = this.graph.randomPath(startCity, endCity, rng);
+        while (calculateTotalTime(aux.getDistance()) > MAX_WORKING_TIME && aux.getHops() > graph.getVertexCount() / 3) {
+            aux = this.graph.randomPath(startCity, endCity, rng);
+        }
+        this.totalDistance = aux.getDistance();
+        this.routeLenght = aux.getHops();
+        this.startCity = startCity;
+        this.endCity = endCity;
+        this.totalTime = calculateTotalTime(aux.getDistance());
+        this.path = aux.getPath();
+    }
+
+    //For paths that come with their distance and length already known
+    public Route(PathResult result, WeightedGraph graph) {
+        this.graph = graph;
+        this.path = result.getPath();
+        this.startCity = path[0];
+        this.endCity = path[path.length - 1];
+        this.totalDistance = result.getDistance();
+        this.routeLenght = result.getHops();
+        this.totalTime = calculateTotalTime(this.totalDistance);
+    }
+
+    public Route(List<String> newPath, WeightedGraph graph) {
+        this(graph.toIds(newPath), graph);
+    }
+
+    public Route(int[] newPath, WeightedGraph graph) {
+        this.graph = graph;
+        this.path = newPath;
+        this.startCity = newPath[0];
+        this.endCity = newPath[newPath.length - 1];
+        calculateTotalDistanceAndLength();
+        this.totalTime = calculateTotalTime(this.totalDistance);
+    }
+
+    //Takes over path, whose distance the caller already knows; nothing else may keep the array
+    Route(int[] path, int distance, WeightedGraph graph) {
+        this.graph = graph;
+        this.path = path;
+        this.startCity = path[0];
+        this.endCity = path[path.length - 1];
+        this.totalDistance = distance;
+        this.routeLenght = path.length - 1;
+        this.totalTime = calculateTotalTime(distance);
+    }
+
+    //Copy with its own path array, so in-place changes to one do not affect the other
+    public Route(Route other) {
+        this.graph = other.graph;
+        this.path = other.path.clone();
+        this.startCity = other.startCity;
+        this.endCity = other.endCity;
+        this.totalDistance = other.totalDistance;
+        this.routeLenght = other.routeLenght;
+        this.totalTime = other.totalTime;
+        this.hash = other.hash;
+    }
+
+    // Setters and getters
+    public double getMAX_WORKING_TIME() {
+        return MAX_WORKING_TIME;
+    }
+
+    //City names are only resolved here, for printing
+    public List<String> getPath() {
+        return graph.toNames(path);
+    }
+
+    //The internal array, not a copy
+    public int[] getPathIds() {
+        return path;
+    }
+
+    public void setPath(List<String> Path) {
+        this.path = graph.toIds(Path);
+        this.hash = 0;
+        this.startCity = path[0];
+        this.endCity = path[path.length - 1];
+        calculateTotalDistanceAndLength();
+        this.totalTime = calculateTotalTime(this.totalDistance);
+    }
+
+    public long getHash() {
+        if (hash == 0)
+            hash = PathHash.of(path);
+        return hash;
+    }
+
+    public int getRouteLenght() {
+        return routeLenght;
+    }
+
+    public int getTotalDistance() {
+        return totalDistance;
+    }
+
+    public Pair<String, String> getCities() {
+        return new Pair<String, String>(graph.getVertexName(startCity), graph.getVertexName(endCity));
+    }
+
+    public int getStartCity() {
+        return startCity;
+    }
+
+    public int getEndCity() {
+        return endCity;
+    }
+
+    public void setCities(String City1, String City2) {
+        startCity = graph.getIndex(City1);
+        endCity = graph.getIndex(City2);
+    }
+
+    public double getTotalTime() {
+        return totalTime;
+    }
+
+    private double calculateTotalTime(int dist) {
+        if (dist == -1) {
+            return -1;
+        }
+        return travelTime(dist, routeLenght);
+    }
+
+    //80 km/h average speed plus 20 minutes spent in every city
+    public static double travelTime(int distance, int hops) {
+        return (double) (((double) distance / 80 * 60) + (double) (hops * 20));
+    }
+
+    //The longest distance that still fits in the given time with that many hops
+    public static int maxDistance(double time, int hops) {
+        return (int) Math.floor((time - hops * 20) / 60 * 80);
+    }
+
+    //Fitness
+    public double getFitness() {
+        return 1.0 / totalTime;
+    }
+
+    //Incremental changes, only the edges next to the changed positions are looked at
+    //A route stays simple only if the caller checks that new cities are not already in the path
+
+    //Change of the total distance if path[index] became city, O(1)
+    public int deltaReplaceCity(int index, int city) {
+        checkIndex(index);
+        int delta = 0;
+        int weight = graph.getEdgeWeight(path[index - 1], city);
+        if (weight == 0)
+            return NO_EDGE;
+        delta += weight - graph.getEdgeWeight(path[index - 1], path[index]);
+        if (index < path.length - 1) {
+            weight = graph.getEdgeWeight(city, path[index + 1]);
+            if (weight == 0)
+                return NO_EDGE;
+            delta += weight - graph.getEdgeWeight(path[index], path[index + 1]);
+        }
+        return delta;
+    }
+
+    //Replaces path[index] with city and updates distance and time in O(1)
+    //Returns false and leaves the route unchanged if an edge is missing
+    public boolean replaceCity(int index, int city) {
+        int delta = deltaReplaceCity(index, city);
+        if (delta == NO_EDGE)
+            return false;
+        if (hash != 0)
+            hash ^= PathHash.key(path[index], index) ^ PathHash.key(city, index);
+        path[index] = city;
+        if (index == path.length - 1)
+            endCity = city;
+        applyDelta(delta, 0);
+        return true;
+    }
+
+    //Change of the total distance if path[from..to] was reversed, O(1) since the graph is undirected
+    public int deltaReverse(int from, int to) {
+        checkIndex(from);
+        checkIndex(to);
+        int delta = 0;
+        int weight = graph.getEdgeWeight(path[from - 1], path[to]);
+        if (weight == 0)
+            return NO_EDGE;
+        delta += weight - graph.getEdgeWeight(path[from - 1], path[from]);
+        if (to < path.length - 1) {
+            weight = graph.getEdgeWeight(path[from], path[to + 1]);
+            if (weight == 0)
+                return NO_EDGE;
+            delta += weight - graph.getEdgeWeight(path[to], path[to + 1]);
+        }
+        return delta;
+    }
+
+    //Reverses path[from..to], O(to - from)
+    public boolean reverseSegment(int from, int to) {
+        int delta = deltaReverse(from, to);
+        if (delta == NO_EDGE)
+            return false;
+        for (int i = from, j = to; i < j; i++, j--) {
+            int city = path[i];
+            path[i] = path[j];
+            path[j] = city;
+            if (hash != 0)
+                hash ^= PathHash.key(path[i], i) ^ PathHash.key(path[j], i)
+                        ^ PathHash.key(path[j], j) ^ PathHash.key(path[i], j);
+        }
+        endCity = path[path.length - 1];
+        applyDelta(delta, 0);
+        return true;
+    }
+
+    //Replaces path[from..to] with segment, which may have another length
+    //A segment of the same length is written in place with the hash kept up to date, O(k) for k
+    //cities in the segment; another length copies the whole path and drops the hash, O(n)
+    public boolean replaceSegment(int from, int to, int[] segment) {
+        checkIndex(from);
+        if (to < from - 1 || to >= path.length)
+            throw new IndexOutOfBoundsException("Invalid segment " + from + ".." + to);
+        int removed = 0;
+        for (int i = from - 1; i <= to && i + 1 < path.length; i++) {
+            removed += graph.getEdgeWeight(path[i], path[i + 1]);
+        }
+        int added = 0;
+        int previous = path[from - 1];
+        for (int city : segment) {
+            int weight = graph.getEdgeWeight(previous, city);
+            if (weight == 0)
+                return false;
+            added += weight;
+            previous = city;
+        }
+        if (to + 1 < path.length) {
+            int weight = graph.getEdgeWeight(previous, path[to + 1]);
+            if (weight == 0)
+                return false;
+            added += weight;
+        }
+        int oldLength = to - from + 1;
+        if (segment.length == oldLength) {
+            for (int k = 0; k < oldLength; k++) {
+                int index = from + k;
+                if (hash != 0)
+                    hash ^= PathHash.key(path[index], index) ^ PathHash.key(segment[k], index);
+                path[index] = segment[k];
+            }
+            endCity = path[path.length - 1];
+            applyDelta(added - removed, 0);
+            return true;
+        }
+        int[] newPath = new int[path.length - oldLength + segment.length];
+        System.arraycopy(path, 0, newPath, 0, from);
+        System.arraycopy(segment, 0, newPath, from, segment.length);
+        System.arraycopy(path, to + 1, newPath, from + segment.length, path.length - to - 1);
+        path = newPath;
+        hash = 0;
+        endCity = path[path.length - 1];
+        applyDelta(added - removed, segment.length - oldLength);
+        return true;
+    }
+
+    private void applyDelta(int distanceDelta, int lengthDelta) {
+        totalDistance += distanceDelta;
+        routeLenght += lengthDelta;
+        totalTime = calculateTotalTime(totalDistance);
+    }
+
+    //The depot at index 0 never changes
+    private void checkIndex(int index) {
+        if (index < 1 || index >= path.length)
+            throw new IndexOutOfBoundsException("Index " + index + " outside 1.." + (path.length - 1));
+    }
+
+    //To calculate total distance and length of it, if 2nd constructor is used (with path input)
+    private void calculateTotalDistanceAndLength() {
+        this.totalDistance = 0;
+        this.routeLenght = 0;
+
+        for (int i = 0; i < path.length - 1; i++) {
+            int index1 = path[i];
+            int index2 = path[i + 1];
+
+            if (index1 == -1 || index2 == -1 || graph.getEdgeWeight(index1, index2) == 0) {
+                throw new IllegalArgumentException("Invalid path: No direct path between "
+                        + cityName(index1) + " and " + cityName(index2));
+            }
+
+            this.totalDistance += graph.getEdgeWeight(index1, index2);
+            this.routeLenght++;
+        }
+    }
+
+    private String cityName(int index) {
+        return index == -1 ? "<unknown>" : graph.getVertexName(index);
+    }
+
 }
\ No newline at end of file
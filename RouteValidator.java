@@ -0,0 +1,76 @@
+import java.util.Arrays;
+
+//Checks the depot, repeated cities and the working time of a route in one pass, without allocating
+//Repeated cities are found with a generation-stamped array per thread: a city is in the current
+//path if its stamp equals the current generation, so the array never has to be cleared
+public class RouteValidator {
+
+    private final int depot;
+    private final double maxTime;
+    private final ThreadLocal<PathMarks> marks;
+
+    //Cities of one path, valid until the next call to mark() on the same thread
+    //Also usable on its own as a reusable set of cities, next() empties it in O(1)
+    public static final class PathMarks {
+        private final int[] stamps;
+        private int generation;
+
+        PathMarks(int vertexCount) {
+            this.stamps = new int[vertexCount];
+        }
+
+        void next() {
+            generation++;
+            if (generation == 0) {
+                // Wrapped around after 2^32 paths, old stamps could match again
+                Arrays.fill(stamps, 0);
+                generation = 1;
+            }
+        }
+
+        //Marks a city, returns false if it was already marked
+        boolean add(int city) {
+            if (stamps[city] == generation)
+                return false;
+            stamps[city] = generation;
+            return true;
+        }
+
+        public boolean contains(int city) {
+            return stamps[city] == generation;
+        }
+    }
+
+    public RouteValidator(WeightedGraph graph, int depot, double maxTime) {
+        this.depot = depot;
+        this.maxTime = maxTime;
+        this.marks = ThreadLocal.withInitial(() -> new PathMarks(graph.getVertexCount()));
+    }
+
+    //Starts at the depot, never comes back to it, visits every city once and fits in the working time
+    public boolean isValid(Route route) {
+        if (route.getTotalTime() > maxTime)
+            return false;
+        int[] path = route.getPathIds();
+        if (path.length == 0 || path[0] != depot)
+            return false;
+        // The depot is marked first, so a later visit to it counts as a repeated city
+        PathMarks pathMarks = marks.get();
+        pathMarks.next();
+        for (int city : path) {
+            if (!pathMarks.add(city))
+                return false;
+        }
+        return true;
+    }
+
+    //Marks the cities of a path for O(1) membership tests
+    public PathMarks mark(int[] path) {
+        PathMarks pathMarks = marks.get();
+        pathMarks.next();
+        for (int city : path) {
+            pathMarks.add(city);
+        }
+        return pathMarks;
+    }
+}
@@ -0,0 +1,12 @@
+import java.util.random.RandomGenerator;
+
+//Parent selection, the fitness distribution is built once per generation in prepare()
+//and then sampled populationSize times with select()
+public interface SelectionStrategy {
+
+    //fitness[0..count-1] holds the fitness of each individual of the current population
+    void prepare(double[] fitness, int count);
+
+    //Returns the index of the selected individual
+    int select(RandomGenerator rng);
+}
@@ -0,0 +1,299 @@
+import java.util.Arrays;
+
+//Shortest distances between cities, with the hop count and the path that realise them
+//Small graphs get a full Floyd-Warshall table up front, larger ones run Dijkstra
+//from a source the first time that source is asked for. With a distance limit, Dijkstra stops
+//at that radius and only keeps the cities inside it, so a row on a large road network costs
+//memory for the neighbourhood of its source rather than for the whole graph
+public class ShortestPaths {
+
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+    private static final int FLOYD_WARSHALL_LIMIT = 512;
+
+    private final WeightedGraph graph;
+    private final int vertexCount;
+    private final int maxDistance;
+    private final Row[] rows;
+    private final ThreadLocal<Scratch> scratch;
+
+    //Shortest path tree of one source, final fields so rows can be shared between threads
+    private static final class Row {
+        final int[] vertices; // sorted cities of the row, null when the row has every city
+        final int[] distance;
+        final int[] hops;
+        final int[] previous; // city before v on the path from the source, -1 for the source itself
+
+        Row(int[] vertices, int[] distance, int[] hops, int[] previous) {
+            this.vertices = vertices;
+            this.distance = distance;
+            this.hops = hops;
+            this.previous = previous;
+        }
+
+        //Position of a city in the arrays, negative if the city is not in the row
+        int slot(int city) {
+            return vertices == null ? city : Arrays.binarySearch(vertices, city);
+        }
+    }
+
+    //Dijkstra working arrays, one set per thread and reset after every run
+    private static final class Scratch {
+        final int[] distance;
+        final int[] hops;
+        final int[] previous;
+        int[] touched = new int[16];
+        long[] heap = new long[16];
+
+        Scratch(int vertexCount) {
+            distance = new int[vertexCount];
+            hops = new int[vertexCount];
+            previous = new int[vertexCount];
+            Arrays.fill(distance, UNREACHABLE);
+        }
+    }
+
+    public ShortestPaths(WeightedGraph graph) {
+        this(graph, UNREACHABLE - 1);
+    }
+
+    //Cities farther than maxDistance from a source may be reported as UNREACHABLE
+    public ShortestPaths(WeightedGraph graph, int maxDistance) {
+        this.graph = graph;
+        this.vertexCount = graph.getVertexCount();
+        this.maxDistance = maxDistance;
+        this.rows = new Row[vertexCount];
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(vertexCount));
+        if (vertexCount <= FLOYD_WARSHALL_LIMIT) {
+            floydWarshall();
+        }
+    }
+
+    WeightedGraph getGraph() {
+        return graph;
+    }
+
+    int getMaxDistance() {
+        return maxDistance;
+    }
+
+    public int getDistance(int from, int to) {
+        Row row = row(from);
+        int slot = row.slot(to);
+        return slot < 0 ? UNREACHABLE : row.distance[slot];
+    }
+
+    //Number of edges of the shortest path, -1 if there is none
+    public int getHops(int from, int to) {
+        Row row = row(from);
+        int slot = row.slot(to);
+        return slot < 0 || row.distance[slot] == UNREACHABLE ? -1 : row.hops[slot];
+    }
+
+    public boolean isReachable(int from, int to) {
+        return getDistance(from, to) != UNREACHABLE;
+    }
+
+    //The cities of a shortest path from -> to, or null if there is none
+    public int[] getPath(int from, int to) {
+        Row row = row(from);
+        int slot = row.slot(to);
+        if (slot < 0 || row.distance[slot] == UNREACHABLE) {
+            return null;
+        }
+        int[] path = new int[row.hops[slot] + 1];
+        int current = to;
+        for (int i = path.length - 1; i >= 0; i--) {
+            path[i] = current;
+            current = i > 0 ? row.previous[row.slot(current)] : -1;
+        }
+        return path;
+    }
+
+    //Call after the weight of edge u-v changed in the graph, 0 meaning no edge
+    //Only rows that can change are dropped, they are recomputed with Dijkstra when next asked for:
+    //rows whose shortest path tree uses the edge, and, if the edge got shorter or was added,
+    //rows in which going over the edge reaches u or v at least as cheaply as before
+    //Returns the number of rows dropped. Must not run while other threads query the table
+    public int edgeChanged(int u, int v, int oldWeight, int newWeight) {
+        if (oldWeight == newWeight) {
+            return 0;
+        }
+        int dropped = 0;
+        for (int source = 0; source < vertexCount; source++) {
+            Row row = rows[source];
+            if (row != null && (usesEdge(row, u, v) || newWeight > 0 && (oldWeight == 0 || newWeight < oldWeight)
+                    && (improves(row, u, v, newWeight) || improves(row, v, u, newWeight)))) {
+                rows[source] = null;
+                dropped++;
+            }
+        }
+        return dropped;
+    }
+
+    private static boolean usesEdge(Row row, int u, int v) {
+        int slotU = row.slot(u);
+        int slotV = row.slot(v);
+        return slotV >= 0 && row.previous[slotV] == u || slotU >= 0 && row.previous[slotU] == v;
+    }
+
+    //True if the row reaches from and then to over the edge for no more than it reaches to now
+    private boolean improves(Row row, int from, int to, int weight) {
+        int slotFrom = row.slot(from);
+        if (slotFrom < 0 || row.distance[slotFrom] == UNREACHABLE) {
+            return false;
+        }
+        long through = (long) row.distance[slotFrom] + weight;
+        int slotTo = row.slot(to);
+        int current = slotTo < 0 ? UNREACHABLE : row.distance[slotTo];
+        return through <= current && through <= maxDistance;
+    }
+
+    private Row row(int source) {
+        Row row = rows[source];
+        if (row == null) {
+            // Two threads may compute the same row, both results are equal
+            row = dijkstra(source);
+            rows[source] = row;
+        }
+        return row;
+    }
+
+    private void floydWarshall() {
+        int n = vertexCount;
+        int[][] distance = new int[n][n];
+        int[][] hops = new int[n][n];
+        int[][] previous = new int[n][n];
+        for (int i = 0; i < n; i++) {
+            Arrays.fill(distance[i], UNREACHABLE);
+            Arrays.fill(previous[i], -1);
+            distance[i][i] = 0;
+            for (int k = 0; k < graph.getDegree(i); k++) {
+                int j = graph.getNeighbor(i, k);
+                distance[i][j] = graph.getNeighborWeight(i, k);
+                hops[i][j] = 1;
+                previous[i][j] = i;
+            }
+        }
+        for (int k = 0; k < n; k++) {
+            for (int i = 0; i < n; i++) {
+                if (distance[i][k] == UNREACHABLE) {
+                    continue;
+                }
+                for (int j = 0; j < n; j++) {
+                    if (distance[k][j] == UNREACHABLE) {
+                        continue;
+                    }
+                    int through = distance[i][k] + distance[k][j];
+                    if (through < distance[i][j]) {
+                        distance[i][j] = through;
+                        hops[i][j] = hops[i][k] + hops[k][j];
+                        previous[i][j] = previous[k][j];
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            rows[i] = new Row(null, distance[i], hops[i], previous[i]);
+        }
+    }
+
+    private Row dijkstra(int source) {
+        Scratch work = scratch.get();
+        int[] distance = work.distance;
+        int[] hops = work.hops;
+        int[] previous = work.previous;
+        int touchedCount = 0;
+
+        distance[source] = 0;
+        hops[source] = 0;
+        previous[source] = -1;
+        work.touched[touchedCount++] = source;
+
+        // Binary heap of (distance << 32 | city), stale entries are skipped when popped
+        long[] heap = work.heap;
+        int heapSize = 0;
+        heap[heapSize++] = source;
+        while (heapSize > 0) {
+            long top = heap[0];
+            heap[0] = heap[--heapSize];
+            siftDown(heap, heapSize);
+            int current = (int) top;
+            if ((int) (top >>> 32) != distance[current]) {
+                continue;
+            }
+            for (int k = 0; k < graph.getDegree(current); k++) {
+                int next = graph.getNeighbor(current, k);
+                int candidate = distance[current] + graph.getNeighborWeight(current, k);
+                if (candidate > maxDistance || candidate >= distance[next]) {
+                    continue;
+                }
+                if (distance[next] == UNREACHABLE) {
+                    if (touchedCount == work.touched.length) {
+                        work.touched = Arrays.copyOf(work.touched, touchedCount * 2);
+                    }
+                    work.touched[touchedCount++] = next;
+                }
+                distance[next] = candidate;
+                hops[next] = hops[current] + 1;
+                previous[next] = current;
+                if (heapSize == heap.length) {
+                    heap = Arrays.copyOf(heap, heap.length * 2);
+                    work.heap = heap;
+                }
+                heap[heapSize] = ((long) candidate << 32) | next;
+                siftUp(heap, heapSize++);
+            }
+        }
+
+        // Copy the reached cities into a compact row and reset the scratch arrays
+        int[] vertices = Arrays.copyOf(work.touched, touchedCount);
+        Arrays.sort(vertices);
+        int[] rowDistance = new int[touchedCount];
+        int[] rowHops = new int[touchedCount];
+        int[] rowPrevious = new int[touchedCount];
+        for (int i = 0; i < touchedCount; i++) {
+            int city = vertices[i];
+            rowDistance[i] = distance[city];
+            rowHops[i] = hops[city];
+            rowPrevious[i] = previous[city];
+            distance[city] = UNREACHABLE;
+        }
+        return new Row(vertices, rowDistance, rowHops, rowPrevious);
+    }
+
+    private static void siftUp(long[] heap, int index) {
+        long value = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent] <= value) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = value;
+    }
+
+    private static void siftDown(long[] heap, int size) {
+        if (size == 0) {
+            return;
+        }
+        int index = 0;
+        long value = heap[0];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (heap[child] >= value) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = value;
+    }
+}
@@ -0,0 +1,103 @@
+import java.time.Duration;
+
+//Decides after each generation whether findBestRoutes stops
+//Policies may keep state, start() is called at the beginning of every run
+//Combine them with or() and and(), for example
+//  TerminationPolicy.maxGenerations(1000).or(TerminationPolicy.stagnation(50)).or(TerminationPolicy.deadline(d))
+public interface TerminationPolicy {
+
+    default void start() {
+    }
+
+    //generations is the number of generations done so far, bestFitness that of the current population
+    boolean shouldStop(int generations, double bestFitness);
+
+    default TerminationPolicy or(TerminationPolicy other) {
+        TerminationPolicy first = this;
+        return new TerminationPolicy() {
+            @Override
+            public void start() {
+                first.start();
+                other.start();
+            }
+
+            //Both are asked every generation so stateful policies see every generation
+            @Override
+            public boolean shouldStop(int generations, double bestFitness) {
+                boolean stop = first.shouldStop(generations, bestFitness);
+                return other.shouldStop(generations, bestFitness) || stop;
+            }
+        };
+    }
+
+    default TerminationPolicy and(TerminationPolicy other) {
+        TerminationPolicy first = this;
+        return new TerminationPolicy() {
+            @Override
+            public void start() {
+                first.start();
+                other.start();
+            }
+
+            @Override
+            public boolean shouldStop(int generations, double bestFitness) {
+                boolean stop = first.shouldStop(generations, bestFitness);
+                return other.shouldStop(generations, bestFitness) && stop;
+            }
+        };
+    }
+
+    static TerminationPolicy maxGenerations(int count) {
+        if (count < 0)
+            throw new IllegalArgumentException("Generation count must not be negative");
+        return (generations, bestFitness) -> generations >= count;
+    }
+
+    //Stops once the best fitness has not improved for the given number of generations
+    static TerminationPolicy stagnation(int generationsWithoutImprovement) {
+        if (generationsWithoutImprovement < 1)
+            throw new IllegalArgumentException("Stagnation limit must be positive");
+        return new TerminationPolicy() {
+            private double best;
+            private int lastImprovement;
+
+            @Override
+            public void start() {
+                best = Double.NEGATIVE_INFINITY;
+                lastImprovement = 0;
+            }
+
+            @Override
+            public boolean shouldStop(int generations, double bestFitness) {
+                if (bestFitness > best) {
+                    best = bestFitness;
+                    lastImprovement = generations;
+                }
+                return generations - lastImprovement >= generationsWithoutImprovement;
+            }
+        };
+    }
+
+    //Wall-clock limit counted from start(), checked between generations so a run can overshoot
+    //it by up to one generation
+    static TerminationPolicy deadline(Duration duration) {
+        long nanos = duration.toNanos();
+        return new TerminationPolicy() {
+            private long start;
+
+            @Override
+            public void start() {
+                start = System.nanoTime();
+            }
+
+            @Override
+            public boolean shouldStop(int generations, double bestFitness) {
+                return System.nanoTime() - start >= nanos;
+            }
+        };
+    }
+
+    static TerminationPolicy targetFitness(double fitness) {
+        return (generations, bestFitness) -> bestFitness >= fitness;
+    }
+}
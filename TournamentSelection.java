@@ -0,0 +1,34 @@
+import java.util.random.RandomGenerator;
+
+//Picks tournamentSize random individuals and keeps the fittest, O(k) per selection
+public class TournamentSelection implements SelectionStrategy {
+
+    private final int tournamentSize;
+    private double[] fitness;
+    private int count;
+
+    public TournamentSelection(int tournamentSize) {
+        if (tournamentSize < 1) {
+            throw new IllegalArgumentException("Tournament size must be at least 1");
+        }
+        this.tournamentSize = tournamentSize;
+    }
+
+    @Override
+    public void prepare(double[] fitness, int count) {
+        this.fitness = fitness;
+        this.count = count;
+    }
+
+    @Override
+    public int select(RandomGenerator rng) {
+        int best = rng.nextInt(count);
+        for (int i = 1; i < tournamentSize; i++) {
+            int candidate = rng.nextInt(count);
+            if (fitness[candidate] > fitness[best]) {
+                best = candidate;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,116 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+//Undirected weighted graph, used by Route and GeneticAlgorithm
+//Cities are indexes 0..n-1, names are only needed at the input/output boundary
+//Implementations must be safe to read from many threads at once; setEdgeWeight must not run
+//while other threads read the graph
+public interface WeightedGraph {
+
+    int getVertexCount();
+
+    String[] getVertices();
+
+    //Returns the index of a city, or -1 if the city is not in the graph
+    int getIndex(String vertex);
+
+    String getVertexName(int index);
+
+    //Distance of the edge between two cities, 0 if there is no edge
+    int getEdgeWeight(int from, int to);
+
+    //Neighbours of a city are numbered 0..getDegree(city)-1
+    int getDegree(int vertex);
+
+    int getNeighbor(int vertex, int k);
+
+    int getNeighborWeight(int vertex, int k);
+
+    //Sets the distance of the road between two different cities, 0 removes the road
+    void setEdgeWeight(int from, int to, int distance);
+
+    //Conversions between city names and indexes
+    default int[] toIds(List<String> names) {
+        int[] ids = new int[names.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = getIndex(names.get(i));
+        }
+        return ids;
+    }
+
+    default List<String> toNames(int[] ids) {
+        List<String> names = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            names.add(getVertexName(id));
+        }
+        return names;
+    }
+
+    //This is for generation a random path between 2 cities
+    //The graph is only read, so many threads can call this at once, each with its own generator
+    default PathResult randomPath(String startCity, String endCity, RandomGenerator rng) {
+        return randomPath(getIndex(startCity), getIndex(endCity), rng);
+    }
+
+    default PathResult randomPath(int startIndex, int endIndex, RandomGenerator rng) {
+        // Check if both cities are valid
+        if (startIndex == -1 || endIndex == -1) {
+            return PathResult.NONE; // Invalid cities
+        }
+
+        int[] path = new int[getVertexCount() + 1];
+        int pathSize = 0;
+        int totalDistance = 0;
+        int current = startIndex;
+
+        // Add the start city to the path
+        path[pathSize++] = current;
+
+        while (current != endIndex) {
+            int adjacentCount = getDegree(current);
+            if (adjacentCount == 0) {
+                // No path exists from the current city
+                return PathResult.NONE;
+            }
+
+            // Pick a random adjacent city
+            int pick = rng.nextInt(adjacentCount);
+            totalDistance += getNeighborWeight(current, pick);
+            current = getNeighbor(current, pick);
+
+            // Add the next city to the path, the walk can revisit cities so the buffer may grow
+            if (pathSize == path.length) {
+                path = Arrays.copyOf(path, path.length * 2);
+            }
+            path[pathSize++] = current;
+        }
+
+        return new PathResult(Arrays.copyOf(path, pathSize), totalDistance, pathSize - 1);
+    }
+
+    //Checking validation of a path
+    default boolean validateRoute(List<String> path) {
+        if (path == null) {
+            return false;
+        }
+        return validateRoute(toIds(path));
+    }
+
+    default boolean validateRoute(int[] path) {
+        if (path == null || path.length < 2) {
+            return false; // A valid path should have at least two cities
+        }
+        for (int i = 0; i < path.length - 1; i++) {
+            int index1 = path[i];
+            int index2 = path[i + 1];
+
+            // Check if both cities are valid and if there is a direct path between them
+            if (index1 == -1 || index2 == -1 || getEdgeWeight(index1, index2) == 0) {
+                return false; // No direct path between these cities
+            }
+        }
+        return true; // The route is valid and exists in the graph
+    }
+}
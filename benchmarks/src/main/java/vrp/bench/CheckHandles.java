@@ -0,0 +1,16 @@
+package vrp.bench;
+
+/**
+ * Run by the build after compiling: loading {@link Solver} resolves every method handle and
+ * constant, so a solver member that was renamed or changed fails {@code mvn package}.
+ */
+public final class CheckHandles {
+
+    private CheckHandles() {
+    }
+
+    public static void main(String[] args) {
+        System.out.println("Solver handles resolved: MAX_WORKING_TIME=" + Solver.MAX_WORKING_TIME
+                + " MIN_ROUTE_LENGTH=" + Solver.MIN_ROUTE_LENGTH + " MAX_DISTANCE=" + Solver.MAX_DISTANCE);
+    }
+}
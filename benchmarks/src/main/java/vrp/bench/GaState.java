@@ -0,0 +1,70 @@
+package vrp.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * A graph, a GeneticAlgorithm on it and inputs for each step of a generation.
+ * Built once per trial, building the 100k-city graph and its population takes a few seconds.
+ */
+@State(Scope.Thread)
+public class GaState {
+
+    @Param({"builtin", "1000", "10000", "100000"})
+    public String graph;
+
+    @Param({"200"})
+    public int populationSize;
+
+    Object graphInstance;
+    int depot;
+    Object generator;
+    Object rng;
+    Object ga;
+    List<?> selected;
+    List<?> offspring;
+    List<?> routes;
+    int[][] paths;
+    int[] targets;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        graphInstance = Graphs.create(graph);
+        String depotName = Graphs.depot(graph);
+        depot = (int) Solver.GET_INDEX.invokeExact(graphInstance, (Object) depotName);
+        Object shortestPaths = (Object) Solver.NEW_SHORTEST_PATHS.invokeExact(graphInstance, Solver.MAX_DISTANCE);
+        generator = (Object) Solver.NEW_PATH_GENERATOR.invokeExact(graphInstance, shortestPaths,
+                Solver.MAX_WORKING_TIME);
+        SplittableRandom random = new SplittableRandom(7);
+        rng = random;
+
+        // Targets and paths that the generator can actually reach within the working time
+        int vertexCount = (int) Solver.GET_VERTEX_COUNT.invokeExact(graphInstance);
+        List<int[]> found = new ArrayList<>();
+        List<Integer> reached = new ArrayList<>();
+        for (int attempt = 0; attempt < 100_000 && found.size() < 256; attempt++) {
+            int target = random.nextInt(vertexCount);
+            Object result = (Object) Solver.GENERATE_PATH.invokeExact(generator, depot, target,
+                    Solver.MIN_ROUTE_LENGTH, rng);
+            int[] path = (int[]) (Object) Solver.PATH_RESULT_PATH.invokeExact(result);
+            if (path.length > Solver.MIN_ROUTE_LENGTH) {
+                found.add(path);
+                reached.add(target);
+            }
+        }
+        paths = found.toArray(new int[0][]);
+        targets = reached.stream().mapToInt(Integer::intValue).toArray();
+
+        ga = Solver.newGeneticAlgorithm(graphInstance, populationSize, depotName, 11L);
+        selected = (List<?>) (Object) Solver.SELECTION.invokeExact(ga);
+        offspring = (List<?>) (Object) Solver.CROSSOVER.invokeExact(ga, (Object) selected);
+        routes = selected;
+    }
+}
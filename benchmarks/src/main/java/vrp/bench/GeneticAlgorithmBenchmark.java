@@ -0,0 +1,76 @@
+package vrp.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Each step of a generation on its own, plus whole generations.
+ * <p>
+ * mutate keeps editing the same offspring list, mutations keep routes valid so this is a steady
+ * state. findBestRoutes runs one generation per operation, so its score is generations per second.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GeneticAlgorithmBenchmark {
+
+    private int next;
+
+    @Benchmark
+    public Object generatePath(GaState state) throws Throwable {
+        int target = state.targets[next++ % state.targets.length];
+        return (Object) Solver.GENERATE_PATH.invokeExact(state.generator, state.depot, target,
+                Solver.MIN_ROUTE_LENGTH, state.rng);
+    }
+
+    @Benchmark
+    public Object newRoute(GaState state) throws Throwable {
+        int[] path = state.paths[next++ % state.paths.length];
+        return (Object) Solver.NEW_ROUTE.invokeExact((Object) path, state.graphInstance);
+    }
+
+    @Benchmark
+    public boolean isValid(GaState state) throws Throwable {
+        Object route = state.routes.get(next++ % state.routes.size());
+        return (boolean) Solver.IS_VALID.invokeExact(state.ga, route);
+    }
+
+    @Benchmark
+    public Object selection(GaState state) throws Throwable {
+        return (Object) Solver.SELECTION.invokeExact(state.ga);
+    }
+
+    @Benchmark
+    public Object crossover(GaState state) throws Throwable {
+        return (Object) Solver.CROSSOVER.invokeExact(state.ga, (Object) state.selected);
+    }
+
+    @Benchmark
+    public void mutate(GaState state, Blackhole blackhole) throws Throwable {
+        Solver.MUTATE.invokeExact(state.ga, (Object) state.offspring);
+        blackhole.consume(state.offspring);
+    }
+
+    @Benchmark
+    public Object extractDistinctRoutes(GaState state) throws Throwable {
+        return (Object) Solver.EXTRACT_DISTINCT_ROUTES.invokeExact(state.ga);
+    }
+
+    @Benchmark
+    public Object findBestRoutes(GaState state) throws Throwable {
+        return (Object) Solver.FIND_BEST_ROUTES.invokeExact(state.ga, 1);
+    }
+}
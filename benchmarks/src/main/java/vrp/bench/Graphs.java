@@ -0,0 +1,75 @@
+package vrp.bench;
+
+import java.util.SplittableRandom;
+
+/**
+ * Graphs the benchmarks run on: the predefined 18-city network and synthetic road-like networks.
+ * <p>
+ * A synthetic graph of n cities is a square grid with 4-neighbour roads of 5-60 km, plus one random
+ * shortcut to a nearby city per ten cities, so a route within the working time covers a bounded
+ * neighbourhood as on a real regional network. The depot is the middle city.
+ */
+final class Graphs {
+
+    static final String BUILTIN = "builtin";
+    static final String BUILTIN_DEPOT = "Baia Mare";
+
+    private Graphs() {
+    }
+
+    static Object create(String graph) throws Throwable {
+        if (BUILTIN.equals(graph)) {
+            return (Object) Solver.NEW_GRAPH.invokeExact();
+        }
+        return synthetic(Integer.parseInt(graph), 42L);
+    }
+
+    static String depot(String graph) {
+        if (BUILTIN.equals(graph)) {
+            return BUILTIN_DEPOT;
+        }
+        int n = Integer.parseInt(graph);
+        int side = (int) Math.ceil(Math.sqrt(n));
+        return name(Math.min(n - 1, side * (side / 2) + side / 2));
+    }
+
+    static Object synthetic(int n, long seed) throws Throwable {
+        SplittableRandom random = new SplittableRandom(seed);
+        int side = (int) Math.ceil(Math.sqrt(n));
+        String[] names = new String[n];
+        for (int i = 0; i < n; i++) {
+            names[i] = name(i);
+        }
+        int capacity = 2 * n + n / 10;
+        int[] from = new int[capacity];
+        int[] to = new int[capacity];
+        int[] weight = new int[capacity];
+        int edges = 0;
+        for (int i = 0; i < n; i++) {
+            int x = i % side;
+            if (x + 1 < side && i + 1 < n) {
+                from[edges] = i;
+                to[edges] = i + 1;
+                weight[edges++] = 5 + random.nextInt(56);
+            }
+            if (i + side < n) {
+                from[edges] = i;
+                to[edges] = i + side;
+                weight[edges++] = 5 + random.nextInt(56);
+            }
+        }
+        for (int k = 0; k < n / 10; k++) {
+            int a = random.nextInt(n);
+            int b = Math.floorMod(a + (random.nextInt(7) - 3) * side + random.nextInt(7) - 3, n);
+            from[edges] = a;
+            to[edges] = b;
+            weight[edges++] = 20 + random.nextInt(60);
+        }
+        return (Object) Solver.CSR_FROM_EDGES.invokeExact((Object) names, (Object) from, (Object) to, (Object) weight,
+                edges);
+    }
+
+    private static String name(int i) {
+        return "N" + i;
+    }
+}
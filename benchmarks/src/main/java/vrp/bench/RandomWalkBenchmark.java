@@ -0,0 +1,56 @@
+package vrp.bench;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The unbounded random walk of WeightedGraph.randomPath and the Route constructor built on it.
+ * Only the 18-city graph is used, on the synthetic graphs a walk to a random city takes
+ * O(n) steps or more, which is why the GA uses FeasiblePathGenerator instead
+ * (see GeneticAlgorithmBenchmark.generatePath).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RandomWalkBenchmark {
+
+    private Object graph;
+    private int depot;
+    private int vertexCount;
+    private SplittableRandom random;
+    private Object rng;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        graph = Graphs.create(Graphs.BUILTIN);
+        depot = (int) Solver.GET_INDEX.invokeExact(graph, (Object) Graphs.BUILTIN_DEPOT);
+        vertexCount = (int) Solver.GET_VERTEX_COUNT.invokeExact(graph);
+        random = new SplittableRandom(5);
+        rng = random;
+    }
+
+    @Benchmark
+    public Object randomPath() throws Throwable {
+        return (Object) Solver.RANDOM_PATH.invokeExact(graph, depot, random.nextInt(vertexCount), rng);
+    }
+
+    @Benchmark
+    public Object randomRoute() throws Throwable {
+        return (Object) Solver.NEW_RANDOM_ROUTE.invokeExact(depot, random.nextInt(vertexCount), graph, rng);
+    }
+}
@@ -0,0 +1,58 @@
+package vrp.bench;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * One generation of roulette wheel selection: building the distribution and drawing
+ * populationSize parents. Independent of the graph, so large populations can be measured cheaply.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SelectionBenchmark {
+
+    @Param({"200", "10000", "100000"})
+    public int populationSize;
+
+    private double[] fitness;
+    private Object strategy;
+    private Object rng;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        SplittableRandom random = new SplittableRandom(3);
+        fitness = new double[populationSize];
+        for (int i = 0; i < populationSize; i++) {
+            fitness[i] = 1.0 / (100 + random.nextDouble() * 380); // Same range as 1 / route time
+        }
+        strategy = (Object) Solver.NEW_ROULETTE.invokeExact();
+        rng = random;
+    }
+
+    @Benchmark
+    public int rouletteWheelSelection() throws Throwable {
+        Solver.PREPARE.invokeExact(strategy, (Object) fitness, populationSize);
+        int checksum = 0;
+        for (int i = 0; i < populationSize; i++) {
+            checksum += (int) Solver.SELECT.invokeExact(strategy, rng);
+        }
+        return checksum;
+    }
+}
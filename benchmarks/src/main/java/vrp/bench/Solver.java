@@ -0,0 +1,137 @@
+package vrp.bench;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.random.RandomGenerator;
+
+/**
+ * Method handles into the solver classes.
+ * <p>
+ * The solver lives in the default package, which cannot be imported from a named package, and JMH
+ * does not accept benchmarks in the default package. The handles are static finals with erased
+ * types, so {@code invokeExact} calls are inlined by the JIT like direct calls. Private methods of
+ * GeneticAlgorithm are reached the same way, which lets each step of a generation be measured alone.
+ * Constants are read from the solver rather than copied. Private members are found by name, so the
+ * build runs {@link CheckHandles} after compiling: a renamed member fails {@code mvn package}, not a run.
+ */
+final class Solver {
+
+    static final MethodHandle NEW_GRAPH;
+    static final MethodHandle CSR_FROM_EDGES;
+    static final MethodHandle GET_INDEX;
+    static final MethodHandle GET_VERTEX_COUNT;
+    static final MethodHandle RANDOM_PATH;
+    static final MethodHandle NEW_SHORTEST_PATHS;
+    static final MethodHandle NEW_PATH_GENERATOR;
+    static final MethodHandle GENERATE_PATH;
+    static final MethodHandle PATH_RESULT_PATH;
+    static final MethodHandle NEW_ROUTE;
+    static final MethodHandle NEW_RANDOM_ROUTE;
+    static final MethodHandle NEW_ROULETTE;
+    static final MethodHandle PREPARE;
+    static final MethodHandle SELECT;
+    static final MethodHandle NEW_GA;
+    static final MethodHandle IS_VALID;
+    static final MethodHandle SELECTION;
+    static final MethodHandle CROSSOVER;
+    static final MethodHandle MUTATE;
+    static final MethodHandle EXTRACT_DISTINCT_ROUTES;
+    static final MethodHandle FIND_BEST_ROUTES;
+
+    /** Route.MAX_WORKING_TIME */
+    static final double MAX_WORKING_TIME;
+    /** GeneticAlgorithm.MIN_ROUTE_LENGTH */
+    static final int MIN_ROUTE_LENGTH;
+    /** The shortest path distance limit GeneticAlgorithm uses, Route.maxDistance(MAX_WORKING_TIME, 1) */
+    static final int MAX_DISTANCE;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            Class<?> weightedGraph = Class.forName("WeightedGraph");
+            Class<?> graph = Class.forName("Graph");
+            Class<?> csrGraph = Class.forName("CsrGraph");
+            Class<?> pathResult = Class.forName("PathResult");
+            Class<?> shortestPaths = Class.forName("ShortestPaths");
+            Class<?> pathGenerator = Class.forName("FeasiblePathGenerator");
+            Class<?> route = Class.forName("Route");
+            Class<?> selectionStrategy = Class.forName("SelectionStrategy");
+            Class<?> roulette = Class.forName("RouletteWheelSelection");
+            Class<?> ga = Class.forName("GeneticAlgorithm");
+            MethodHandles.Lookup gaLookup = MethodHandles.privateLookupIn(ga, lookup);
+
+            NEW_GRAPH = erase(lookup.findConstructor(graph, MethodType.methodType(void.class)));
+            CSR_FROM_EDGES = erase(lookup.findStatic(csrGraph, "fromEdges", MethodType.methodType(csrGraph,
+                    String[].class, int[].class, int[].class, int[].class, int.class)));
+            GET_INDEX = erase(lookup.findVirtual(weightedGraph, "getIndex",
+                    MethodType.methodType(int.class, String.class)));
+            GET_VERTEX_COUNT = erase(lookup.findVirtual(weightedGraph, "getVertexCount",
+                    MethodType.methodType(int.class)));
+            RANDOM_PATH = erase(lookup.findVirtual(weightedGraph, "randomPath",
+                    MethodType.methodType(pathResult, int.class, int.class, RandomGenerator.class)));
+            NEW_SHORTEST_PATHS = erase(lookup.findConstructor(shortestPaths,
+                    MethodType.methodType(void.class, weightedGraph, int.class)));
+            NEW_PATH_GENERATOR = erase(lookup.findConstructor(pathGenerator,
+                    MethodType.methodType(void.class, weightedGraph, shortestPaths, double.class)));
+            GENERATE_PATH = erase(lookup.findVirtual(pathGenerator, "generate",
+                    MethodType.methodType(pathResult, int.class, int.class, int.class, RandomGenerator.class)));
+            PATH_RESULT_PATH = erase(lookup.findVirtual(pathResult, "getPath", MethodType.methodType(int[].class)));
+            NEW_ROUTE = erase(lookup.findConstructor(route,
+                    MethodType.methodType(void.class, int[].class, weightedGraph)));
+            NEW_RANDOM_ROUTE = erase(lookup.findConstructor(route,
+                    MethodType.methodType(void.class, int.class, int.class, weightedGraph, RandomGenerator.class)));
+            NEW_ROULETTE = erase(lookup.findConstructor(roulette, MethodType.methodType(void.class)));
+            PREPARE = erase(lookup.findVirtual(selectionStrategy, "prepare",
+                    MethodType.methodType(void.class, double[].class, int.class)));
+            SELECT = erase(lookup.findVirtual(selectionStrategy, "select",
+                    MethodType.methodType(int.class, RandomGenerator.class)));
+            NEW_GA = erase(lookup.findConstructor(ga, MethodType.methodType(void.class,
+                    weightedGraph, int.class, double.class, String.class, long.class, ForkJoinPool.class)));
+            IS_VALID = erase(gaLookup.findVirtual(ga, "isValid", MethodType.methodType(boolean.class, route)));
+            SELECTION = erase(gaLookup.findVirtual(ga, "selection", MethodType.methodType(List.class)));
+            CROSSOVER = erase(gaLookup.findVirtual(ga, "crossover", MethodType.methodType(List.class, List.class)));
+            MUTATE = erase(gaLookup.findVirtual(ga, "mutate", MethodType.methodType(void.class, List.class)));
+            EXTRACT_DISTINCT_ROUTES = erase(gaLookup.findVirtual(ga, "extractDistinctRoutes",
+                    MethodType.methodType(List.class)));
+            FIND_BEST_ROUTES = erase(lookup.findVirtual(ga, "findBestRoutes",
+                    MethodType.methodType(List.class, int.class)));
+
+            MAX_WORKING_TIME = (double) lookup.findStaticGetter(route, "MAX_WORKING_TIME", double.class).invokeExact();
+            MIN_ROUTE_LENGTH = (int) gaLookup.findStaticGetter(ga, "MIN_ROUTE_LENGTH", int.class).invokeExact();
+            MAX_DISTANCE = (int) lookup.findStatic(route, "maxDistance",
+                    MethodType.methodType(int.class, double.class, int.class)).invokeExact(MAX_WORKING_TIME, 1);
+        } catch (Throwable e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private Solver() {
+    }
+
+    // Every reference type becomes Object, so call sites do not need the solver classes,
+    // arguments passed to invokeExact must be typed Object as well
+    private static MethodHandle erase(MethodHandle handle) {
+        return handle.asType(handle.type().erase());
+    }
+
+    static Object newGeneticAlgorithm(Object graph, int populationSize, String depot, long seed) {
+        try {
+            return (Object) NEW_GA.invokeExact(graph, populationSize, 0.05, (Object) depot, seed, (Object) null);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static RuntimeException rethrow(Throwable t) {
+        if (t instanceof RuntimeException) {
+            return (RuntimeException) t;
+        }
+        if (t instanceof Error) {
+            throw (Error) t;
+        }
+        return new IllegalStateException(t);
+    }
+}